@@ -0,0 +1,49 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.security.jwt.JwtUtils;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AuthTokenFilterBenchmark {
+  static final String JWT_SECRET = "mySecretKey123912738344535217863718263781678361278213";
+
+  private JwtUtils jwtUtils;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtUtils = BenchmarkFixtures.jwtUtils();
+    token = jwtUtils.generateTokenFromUsername(BenchmarkFixtures.userDetails());
+  }
+
+  // Token handling in AuthTokenFilter before the verified-token cache: key rebuilt and the
+  // signature verified twice per request.
+  @Benchmark
+  public String uncachedFilterPath() {
+    SecretKey validateKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JWT_SECRET));
+    Jwts.parser().verifyWith(validateKey).build().parseSignedClaims(token);
+
+    SecretKey usernameKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JWT_SECRET));
+    return Jwts.parser()
+        .verifyWith(usernameKey)
+        .build()
+        .parseSignedClaims(token)
+        .getPayload()
+        .getSubject();
+  }
+
+  @Benchmark
+  public String cachedFilterPath() {
+    return jwtUtils.getVerifiedClaims(token).getSubject();
+  }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.security.jwt.JwtUtils;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import java.util.List;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+final class BenchmarkFixtures {
+  private BenchmarkFixtures() {}
+
+  static JwtUtils jwtUtils() {
+    return jwtUtils(10000L);
+  }
+
+  static JwtUtils jwtUtils(long cacheMaxSize) {
+    JwtUtils jwtUtils = new JwtUtils();
+    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", AuthTokenFilterBenchmark.JWT_SECRET);
+    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 30000000);
+    ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "springBootEcom");
+    ReflectionTestUtils.setField(jwtUtils, "jwtCacheMaxSize", cacheMaxSize);
+    jwtUtils.init();
+    return jwtUtils;
+  }
+
+  static Product product(Long id) {
+    Product product = new Product();
+    product.setProductId(id);
+    product.setProductName("Product " + id);
+    product.setDescription("Description of product " + id);
+    product.setImage("product-" + id + ".png");
+    product.setQuantity(100);
+    product.setPrice(1000);
+    product.setDiscount(10);
+    product.setSpecialPrice(900);
+    return product;
+  }
+
+  static UserDetailsImpl userDetails() {
+    return new UserDetailsImpl(
+        List.of(new SimpleGrantedAuthority("ROLE_USER")), "user1@example.com", 1L, null, "user1");
+  }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.security.jwt.JwtUtils;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Token generation and validation; a cache size of 0 measures the signature check alone. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtUtilsBenchmark {
+  @Param({"10000", "0"})
+  private long cacheMaxSize;
+
+  private JwtUtils jwtUtils;
+  private UserDetailsImpl userDetails;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtUtils = BenchmarkFixtures.jwtUtils(cacheMaxSize);
+    userDetails = BenchmarkFixtures.userDetails();
+    token = jwtUtils.generateTokenFromUsername(userDetails);
+  }
+
+  @Benchmark
+  public String generate() {
+    return jwtUtils.generateTokenFromUsername(userDetails);
+  }
+
+  @Benchmark
+  public boolean validate() {
+    return jwtUtils.validateJwtToken(token);
+  }
+}
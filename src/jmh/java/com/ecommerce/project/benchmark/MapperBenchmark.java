@@ -0,0 +1,83 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import java.util.concurrent.TimeUnit;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Generated mappers against the ModelMapper calls they replaced. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+  private static final int CART_LINES = 10;
+
+  private ModelMapper modelMapper;
+  private ProductMapper productMapper;
+  private CartMapperImpl cartMapper;
+  private Product product;
+  private Cart cart;
+
+  @Setup
+  public void setUp() {
+    modelMapper = new ModelMapper();
+    productMapper = new ProductMapperImpl();
+    cartMapper = new CartMapperImpl();
+    ReflectionTestUtils.setField(cartMapper, "productMapper", productMapper);
+
+    product = BenchmarkFixtures.product(1L);
+    cart = new Cart();
+    cart.setCartId(1L);
+    cart.setTotalPrice(9000.0);
+    for (long id = 1; id <= CART_LINES; id++) {
+      CartItem cartItem = new CartItem();
+      cartItem.setCartItemId(id);
+      cartItem.setCart(cart);
+      cartItem.setProduct(BenchmarkFixtures.product(id));
+      cartItem.setQuantity(1);
+      cart.getCartItems().add(cartItem);
+    }
+  }
+
+  @Benchmark
+  public ProductDTO productModelMapper() {
+    return modelMapper.map(product, ProductDTO.class);
+  }
+
+  @Benchmark
+  public ProductDTO productGenerated() {
+    return productMapper.toProductDTO(product);
+  }
+
+  // The cart rendering the services did before the generated mappers.
+  @Benchmark
+  public CartDTO cartModelMapper() {
+    CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+    cartDTO.setProducts(
+        cart.getCartItems().stream()
+            .map(
+                item -> {
+                  ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+                  productDTO.setQuantity(item.getQuantity());
+                  return productDTO;
+                })
+            .toList());
+    return cartDTO;
+  }
+
+  @Benchmark
+  public CartDTO cartGenerated() {
+    return cartMapper.toCartDTO(cart);
+  }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.project.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.service.ProductPageCache;
+import com.ecommerce.project.service.ProductSearchIndex;
+import com.ecommerce.project.service.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Latency of a {@code /api/public/products} page with the catalog cache on and off. The repository
+ * is a stub, so the uncached numbers are a lower bound: they leave out the database round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductPageBenchmark {
+  private static final int PAGES = 10;
+
+  @Param({"true", "false"})
+  private boolean cacheEnabled;
+
+  @Param({"10", "50"})
+  private int pageSize;
+
+  private ProductServiceImpl productService;
+
+  @Setup
+  public void setUp() {
+    // The projection query returns fresh DTOs on every call, and the service mutates them.
+    ProductRepository productRepository =
+        mock(ProductRepository.class, withSettings().stubOnly());
+    when(productRepository.findProductDTOs(any(), any(), any(Pageable.class)))
+        .thenAnswer(
+            invocation -> {
+              List<ProductDTO> products = new ArrayList<>(pageSize);
+              for (long i = 0; i < pageSize; i++)
+                products.add(
+                    new ProductDTO(
+                        i,
+                        "Product " + i,
+                        "product-" + i + ".png",
+                        "Description of product " + i,
+                        100,
+                        1000,
+                        10,
+                        900));
+              return new PageImpl<>(products, invocation.getArgument(2), PAGES * (long) pageSize);
+            });
+
+    ProductPageCache productPageCache = new ProductPageCache();
+    ReflectionTestUtils.setField(productPageCache, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(productPageCache, "enabled", cacheEnabled);
+    ReflectionTestUtils.setField(productPageCache, "maxSize", 10000L);
+    ReflectionTestUtils.setField(productPageCache, "ttlSeconds", 600L);
+    productPageCache.init();
+
+    productService = new ProductServiceImpl();
+    ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productService, "productSearchIndex", new ProductSearchIndex());
+    ReflectionTestUtils.setField(productService, "productPageCache", productPageCache);
+    ReflectionTestUtils.setField(productService, "imageBaseUrl", "http://localhost:8080/images");
+  }
+
+  @Benchmark
+  public ProductResponse productPage() {
+    int pageNumber = ThreadLocalRandom.current().nextInt(PAGES);
+    return productService.getAllProducts(pageNumber, pageSize, "productId", "asc", null, null);
+  }
+}
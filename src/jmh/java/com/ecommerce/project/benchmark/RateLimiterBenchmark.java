@@ -0,0 +1,44 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.security.ratelimit.TokenBucketRateLimiter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(Threads.MAX)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RateLimiterBenchmark {
+  private static final int KEYS = 10_000;
+
+  private TokenBucketRateLimiter limiter;
+  private String[] keys;
+
+  @Setup
+  public void setUp() {
+    limiter = new TokenBucketRateLimiter(1_000_000, 1000, 100_000);
+    keys = new String[KEYS];
+    for (int i = 0; i < KEYS; i++) keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+  }
+
+  // Cost of picking a key alone, to subtract from the limiter benchmarks.
+  @Benchmark
+  public String baseline() {
+    return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+  }
+
+  @Benchmark
+  public long spreadKeys() {
+    return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+  }
+
+  // Every thread contends on one bucket, e.g. a single attacked username.
+  @Benchmark
+  public long hotKey() {
+    return limiter.tryAcquire(keys[0]);
+  }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.project.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.ecommerce.project.payload.ProductFacetResponse;
+import com.ecommerce.project.payload.ProductSearchDocument;
+import com.ecommerce.project.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Uncached facet computation over a large in-memory catalog. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductFacetsBenchmark {
+  private static final String[] WORDS = {"phone", "laptop", "shirt", "chair", "lamp", "watch"};
+
+  @Param({"1000000"})
+  private int products;
+
+  private ProductFacets productFacets;
+  private double priceBucketSize;
+
+  @Setup
+  public void setUp() {
+    ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+    when(productRepository.findSearchDocumentsAfter(anyLong(), any(Pageable.class)))
+        .thenAnswer(
+            invocation -> {
+              long after = invocation.getArgument(0);
+              int size = invocation.<Pageable>getArgument(1).getPageSize();
+              List<ProductSearchDocument> batch = new ArrayList<>(size);
+              for (long id = after + 1; id <= Math.min(after + size, products); id++) {
+                long categoryId = id % 50;
+                batch.add(
+                    new ProductSearchDocument(
+                        id,
+                        WORDS[(int) (id % WORDS.length)] + " " + id,
+                        "Sample description for item " + id,
+                        categoryId,
+                        "Category " + categoryId,
+                        (id * 37) % 10_000));
+              }
+              return batch;
+            });
+
+    ProductSearchIndex productSearchIndex = new ProductSearchIndex();
+    ReflectionTestUtils.setField(productSearchIndex, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productSearchIndex, "rebuildBatchSize", 5000);
+    productSearchIndex.rebuild();
+
+    // Size 0 keeps every invocation a cache miss.
+    productFacets = new ProductFacets();
+    ReflectionTestUtils.setField(productFacets, "productSearchIndex", productSearchIndex);
+    ReflectionTestUtils.setField(productFacets, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(productFacets, "cacheMaxSize", 0L);
+    productFacets.init();
+  }
+
+  @Benchmark
+  public ProductFacetResponse wholeCatalog() {
+    return productFacets.getFacets(null, null, nextBucketSize());
+  }
+
+  @Benchmark
+  public ProductFacetResponse keywordInCategory() {
+    return productFacets.getFacets("phone", "Category 6", nextBucketSize());
+  }
+
+  // Varies the key so a lingering cache entry can never be served.
+  private double nextBucketSize() {
+    priceBucketSize = priceBucketSize >= 1000 ? 100 : priceBucketSize + 1;
+    return priceBucketSize;
+  }
+}
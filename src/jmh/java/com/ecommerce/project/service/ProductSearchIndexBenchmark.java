@@ -0,0 +1,90 @@
+package com.ecommerce.project.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.ecommerce.project.payload.ProductSearchDocument;
+import com.ecommerce.project.repositories.ProductRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Keyword searches over a large in-memory catalog. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSearchIndexBenchmark {
+  private static final String[] WORDS = {"phone", "laptop", "shirt", "chair", "lamp", "watch"};
+  private static final int PAGE_SIZE = 20;
+  private static final String[] COLOURS = {"red", "blue", "green", "black", "white", "silver"};
+
+  @Param({"1000000"})
+  private int products;
+
+  private ProductSearchIndex productSearchIndex;
+
+  @Setup
+  public void setUp() {
+    ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+    when(productRepository.findSearchDocumentsAfter(anyLong(), any(Pageable.class)))
+        .thenAnswer(
+            invocation -> {
+              long after = invocation.getArgument(0);
+              int size = invocation.<Pageable>getArgument(1).getPageSize();
+              List<ProductSearchDocument> batch = new ArrayList<>(size);
+              for (long id = after + 1; id <= Math.min(after + size, products); id++) {
+                long categoryId = id % 50;
+                batch.add(
+                    new ProductSearchDocument(
+                        id,
+                        COLOURS[(int) (id / 7 % COLOURS.length)]
+                            + " "
+                            + WORDS[(int) (id % WORDS.length)]
+                            + " "
+                            + id,
+                        "Sample description for item " + id,
+                        categoryId,
+                        "Category " + categoryId,
+                        (id * 37) % 10_000));
+              }
+              return batch;
+            });
+
+    productSearchIndex = new ProductSearchIndex();
+    ReflectionTestUtils.setField(productSearchIndex, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productSearchIndex, "rebuildBatchSize", 5000);
+    productSearchIndex.rebuild();
+  }
+
+  // One token matched by a sixth of the catalog.
+  @Benchmark
+  public ProductSearchIndex.SearchHits commonTerm() {
+    return productSearchIndex.search("phone", null, PAGE_SIZE);
+  }
+
+  // The intersection of two common tokens, narrowed to one category.
+  @Benchmark
+  public ProductSearchIndex.SearchHits twoTermsInCategory() {
+    return productSearchIndex.search("red phone", "Category 6", PAGE_SIZE);
+  }
+
+  // A prefix that expands to many id terms, each matching a single product.
+  @Benchmark
+  public ProductSearchIndex.SearchHits prefix() {
+    return productSearchIndex.search("12345", null, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public ProductSearchIndex.SearchHits noMatch() {
+    return productSearchIndex.search("phone missing", null, PAGE_SIZE);
+  }
+}
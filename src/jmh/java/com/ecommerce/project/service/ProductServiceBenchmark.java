@@ -0,0 +1,39 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Product;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Per-request helpers of the product listing; lives in this package to reach them. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductServiceBenchmark {
+  private ProductServiceImpl productService;
+
+  @Setup
+  public void setUp() {
+    productService = new ProductServiceImpl();
+    ReflectionTestUtils.setField(productService, "imageBaseUrl", "http://localhost:8080/images");
+  }
+
+  @Benchmark
+  public String constructImageUrl() {
+    return productService.constructImageUrl("product-1.png");
+  }
+
+  @Benchmark
+  public Specification<Product> buildSpecificationUnfiltered() {
+    return productService.buildProductSpecification(null, null);
+  }
+
+  @Benchmark
+  public Specification<Product> buildSpecificationFiltered() {
+    return productService.buildProductSpecification("Phone", "Electronics");
+  }
+}
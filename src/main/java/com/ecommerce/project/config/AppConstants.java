@@ -7,4 +7,5 @@ public class AppConstants {
     public static final String SORT_PRODUCTS_BY = "productId";
     public static final String SORT_CATEGORIES_BY = "categoryId";
     public static final String SORT_ADDRESS_BY = "addressId";
+    public static final String PRICE_BUCKET_SIZE = "500";
 }
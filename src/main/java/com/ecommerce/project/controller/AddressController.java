@@ -35,8 +35,11 @@ public class AddressController {
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_ADDRESS_BY, required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder) {
-        AddressResponse addressResponse = addressService.getAllAddresses(pageNumber, pageSize, sortBy, sortOrder);
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        AddressResponse addressResponse = cursor != null
+                ? addressService.getAllAddressesByCursor(cursor, pageSize, sortBy, sortOrder)
+                : addressService.getAllAddresses(pageNumber, pageSize, sortBy, sortOrder);
         return new ResponseEntity<>(addressResponse, HttpStatus.OK);
     }
 
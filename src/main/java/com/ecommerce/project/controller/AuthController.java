@@ -3,14 +3,18 @@ package com.ecommerce.project.controller;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.repositories.RoleRepository;
 import com.ecommerce.project.repositories.UserRepository;
 import com.ecommerce.project.security.jwt.JwtUtils;
 import com.ecommerce.project.security.request.LoginRequest;
 import com.ecommerce.project.security.request.SignUpRequest;
 import com.ecommerce.project.security.response.MessageResponse;
 import com.ecommerce.project.security.response.UserInfoResponse;
+import com.ecommerce.project.security.services.TokenRevocationService;
+import com.ecommerce.project.security.services.RoleRegistry;
 import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import java.util.*;
@@ -39,7 +43,11 @@ public class AuthController {
 
   @Autowired private PasswordEncoder passwordEncoder;
 
-  @Autowired private RoleRepository roleRepository;
+  @Autowired private RoleRegistry roleRegistry;
+
+  @Autowired private UserDetailsServiceImpl userDetailsService;
+
+  @Autowired private TokenRevocationService tokenRevocationService;
 
   @PostMapping("/signin")
   public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
@@ -93,41 +101,26 @@ public class AuthController {
     Set<Role> roles = new HashSet<>();
 
     if (strRoles == null) {
-      Role userRole =
-          roleRepository
-              .findByRoleName(AppRole.ROLE_USER)
-              .orElseThrow(() -> new RuntimeException("Error: Role not found!"));
-      roles.add(userRole);
+      roles.add(roleRegistry.get(AppRole.ROLE_USER));
     } else {
       strRoles.forEach(
           role -> {
             switch (role) {
               case "admin":
-                Role adminRole =
-                    roleRepository
-                        .findByRoleName(AppRole.ROLE_ADMIN)
-                        .orElseThrow(() -> new RuntimeException("Error: Role not found!"));
-                roles.add(adminRole);
+                roles.add(roleRegistry.get(AppRole.ROLE_ADMIN));
                 break;
               case "seller":
-                Role sellerRole =
-                    roleRepository
-                        .findByRoleName(AppRole.ROLE_SELLER)
-                        .orElseThrow(() -> new RuntimeException("Error: Role not found!"));
-                roles.add(sellerRole);
+                roles.add(roleRegistry.get(AppRole.ROLE_SELLER));
                 break;
               default:
-                Role userRole =
-                    roleRepository
-                        .findByRoleName(AppRole.ROLE_USER)
-                        .orElseThrow(() -> new RuntimeException("Error: Role not found!"));
-                roles.add(userRole);
+                roles.add(roleRegistry.get(AppRole.ROLE_USER));
             }
           });
     }
 
     user.setRoles(roles);
     userRepository.save(user);
+    userDetailsService.evictUser(user.getUserName());
     return ResponseEntity.ok(new MessageResponse("User registered successfully"));
   }
 
@@ -150,7 +143,12 @@ public class AuthController {
   }
 
   @PostMapping("/signout")
-    public ResponseEntity<?> signOutUser() {
+    public ResponseEntity<?> signOutUser(HttpServletRequest request) {
+      String jwt = jwtUtils.getJwtFromCookies(request);
+      if (jwt == null) jwt = jwtUtils.getJwtFromHeader(request);
+      Claims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+      if (claims != null) tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+
       ResponseCookie cookie = jwtUtils.getCleanJwtCookie();
     return ResponseEntity.ok()
         .header(HttpHeaders.SET_COOKIE, cookie.toString())
@@ -1,25 +1,41 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartBatchResponse;
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperation;
 import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.service.CartExportService;
 import com.ecommerce.project.service.CartService;
 import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.KeysetPage;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/api")
 public class CartController {
+  private static final String NDJSON = "application/x-ndjson";
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   @Autowired private CartService cartService;
 
+  @Autowired private CartExportService cartExportService;
+
   @Autowired private AuthUtil authUtil;
 
   @Autowired private CartRepository cartRepository;
 
+  @Value("${spring.app.cartExport.timeoutMs:3600000}")
+  private long exportTimeoutMs;
+
   @PostMapping("/carts/products/{productId}/quantity/{quantity}")
   public ResponseEntity<CartDTO> addProductToCart(
       @PathVariable Long productId, @PathVariable Integer quantity) {
@@ -27,10 +43,36 @@ public class CartController {
     return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.CREATED);
   }
 
+  @PostMapping("/carts/batch")
+  public ResponseEntity<CartBatchResponse> applyCartOperations(
+      @RequestBody List<CartOperation> operations) {
+    CartBatchResponse response = cartService.applyCartOperations(operations);
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
+  // Keyset pages in cart id order; the next page is requested with the X-Next-Cursor header value.
   @GetMapping("/carts")
-  public ResponseEntity<List<CartDTO>> getCarts() {
-    List<CartDTO> cartDTOS = cartService.getAllCarts();
-    return new ResponseEntity<>(cartDTOS, HttpStatus.FOUND);
+  public ResponseEntity<List<CartDTO>> getCarts(
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false)
+          Integer pageSize) {
+    KeysetPage<CartDTO> page = cartService.getCarts(cursor, pageSize);
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.FOUND);
+    if (!page.isLast()) response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    return response.body(page.content());
+  }
+
+  // Every cart, one per line: curl -H "Accept: application/x-ndjson" -o carts.ndjson .../api/carts
+  // Runs under its own async timeout, long enough for every cart.
+  @GetMapping(value = "/carts", produces = NDJSON)
+  public WebAsyncTask<Void> exportCarts(HttpServletResponse response) {
+    response.setContentType(NDJSON);
+    return new WebAsyncTask<>(
+        exportTimeoutMs,
+        () -> {
+          cartExportService.exportCarts(response.getOutputStream());
+          return null;
+        });
   }
 
   @GetMapping("/carts/users/cart")
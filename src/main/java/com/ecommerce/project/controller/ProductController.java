@@ -1,23 +1,44 @@
 package com.ecommerce.project.controller;
 
 import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.payload.CatalogVersion;
 import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductFacetResponse;
+import com.ecommerce.project.payload.ProductImportResponse;
 import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.service.ProductExportService;
+import com.ecommerce.project.service.ProductImportService;
 import com.ecommerce.project.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
   @Autowired ProductService productService;
 
+  @Autowired ProductImportService productImportService;
+
+  @Autowired ProductExportService productExportService;
+
+  @Value("${spring.app.productExport.timeoutMs:3600000}")
+  long exportTimeoutMs;
+
   @PostMapping("/admin/categories/{categoryId}/product")
   public ResponseEntity<ProductDTO> addProduct(
       @Valid @RequestBody ProductDTO productDTO, @PathVariable Long categoryId) {
@@ -25,6 +46,44 @@ public class ProductController {
     return new ResponseEntity<>(savedProductDTO, HttpStatus.CREATED);
   }
 
+  // Streams the raw body: curl --data-binary @products.csv -H 'Content-Type: text/csv' ...
+  @PostMapping(
+      value = "/admin/categories/{categoryId}/products/import",
+      consumes = {"text/csv", "application/x-ndjson"})
+  public ResponseEntity<ProductImportResponse> importProducts(
+      @PathVariable Long categoryId, HttpServletRequest request) throws IOException {
+    ProductImportResponse importResponse =
+        productImportService.importProducts(
+            categoryId,
+            MediaType.parseMediaType(request.getContentType()),
+            request.getInputStream());
+    return new ResponseEntity<>(importResponse, HttpStatus.OK);
+  }
+
+  // Streams rows as they are read: curl -o products.ndjson .../admin/products/export?format=ndjson
+  // A full catalog takes longer than the default async timeout, so the export sets its own.
+  @GetMapping("/admin/products/export")
+  public WebAsyncTask<Void> exportProducts(
+      @RequestParam(name = "format", defaultValue = "ndjson", required = false) String format,
+      HttpServletResponse response) {
+    MediaType contentType =
+        switch (format.toLowerCase(Locale.ROOT)) {
+          case "csv" -> MediaType.parseMediaType("text/csv");
+          case "ndjson" -> MediaType.parseMediaType("application/x-ndjson");
+          default -> throw new APIException("Unsupported export format: " + format);
+        };
+    response.setContentType(contentType.toString());
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"products." + format.toLowerCase(Locale.ROOT) + "\"");
+    return new WebAsyncTask<>(
+        exportTimeoutMs,
+        () -> {
+          productExportService.exportProducts(contentType, response.getOutputStream());
+          return null;
+        });
+  }
+
   @GetMapping("/public/products")
   public ResponseEntity<ProductResponse> getAllProducts(
       @RequestParam(name = "keyword", required = false) String keyword,
@@ -36,12 +95,36 @@ public class ProductController {
       @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false)
           String sortBy,
       @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false)
-          String sortOrder) {
+          String sortOrder,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      WebRequest webRequest) {
+    // Answers 304 from the cached filter version, before any page is loaded or rendered.
+    CatalogVersion version = productService.getCatalogVersion(category);
+    if (webRequest.checkNotModified(version.eTag(), version.lastModified())) return null;
+
     ProductResponse productResponse =
-        productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category);
+        cursor != null
+            ? productService.getAllProductsByCursor(
+                cursor, pageSize, sortBy, sortOrder, keyword, category)
+            : productService.getAllProducts(
+                pageNumber, pageSize, sortBy, sortOrder, keyword, category);
     return new ResponseEntity<>(productResponse, HttpStatus.OK);
   }
 
+  @GetMapping("/public/products/facets")
+  public ResponseEntity<ProductFacetResponse> getProductFacets(
+      @RequestParam(name = "keyword", required = false) String keyword,
+      @RequestParam(name = "category", required = false) String category,
+      @RequestParam(
+              name = "priceBucketSize",
+              defaultValue = AppConstants.PRICE_BUCKET_SIZE,
+              required = false)
+          Double priceBucketSize) {
+    ProductFacetResponse facetResponse =
+        productService.getProductFacets(keyword, category, priceBucketSize);
+    return new ResponseEntity<>(facetResponse, HttpStatus.OK);
+  }
+
   @GetMapping("/public/categories/{categoryId}/products")
   public ResponseEntity<ProductResponse> getProductsByCategory(
       @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false)
@@ -52,9 +135,17 @@ public class ProductController {
           String sortBy,
       @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false)
           String sortOrder,
-      @PathVariable Long categoryId) {
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @PathVariable Long categoryId,
+      WebRequest webRequest) {
+    CatalogVersion version = productService.getCategoryCatalogVersion(categoryId);
+    if (webRequest.checkNotModified(version.eTag(), version.lastModified())) return null;
+
     ProductResponse productResponse =
-        productService.searchByCategory(pageNumber, pageSize, sortBy, sortOrder, categoryId);
+        cursor != null
+            ? productService.searchByCategoryByCursor(
+                cursor, pageSize, sortBy, sortOrder, categoryId)
+            : productService.searchByCategory(pageNumber, pageSize, sortBy, sortOrder, categoryId);
     return new ResponseEntity<>(productResponse, HttpStatus.OK);
   }
 
@@ -68,7 +159,11 @@ public class ProductController {
           String sortBy,
       @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false)
           String sortOrder,
-      @PathVariable String keyword) {
+      @PathVariable String keyword,
+      WebRequest webRequest) {
+    CatalogVersion version = productService.getCatalogVersion(null);
+    if (webRequest.checkNotModified(version.eTag(), version.lastModified())) return null;
+
     ProductResponse productResponse =
         productService.searchProductByKeyword(pageNumber, pageSize, sortBy, sortOrder, keyword);
     return new ResponseEntity<>(productResponse, HttpStatus.FOUND);
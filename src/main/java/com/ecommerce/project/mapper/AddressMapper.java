@@ -0,0 +1,14 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.payload.AddressDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface AddressMapper {
+  AddressDTO toAddressDTO(Address address);
+
+  @Mapping(target = "user", ignore = true)
+  Address toAddress(AddressDTO addressDTO);
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.PaymentDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = ProductMapper.class)
+public interface OrderMapper {
+  @Mapping(target = "addressId", source = "address.addressId")
+  OrderDTO toOrderDTO(Order order);
+
+  OrderItemDTO toOrderItemDTO(OrderItem orderItem);
+
+  PaymentDTO toPaymentDTO(Payment payment);
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ProductMapper {
+  ProductDTO toProductDTO(Product product);
+
+  @Mapping(target = "category", ignore = true)
+  @Mapping(target = "user", ignore = true)
+  @Mapping(target = "products", ignore = true)
+  @Mapping(target = "updatedAt", ignore = true)
+  Product toProduct(ProductDTO productDTO);
+
+  /** A cart line is rendered as its product, with the quantity in the cart. */
+  default ProductDTO cartItemToProductDTO(CartItem cartItem) {
+    if (cartItem == null) return null;
+    ProductDTO productDTO = toProductDTO(cartItem.getProduct());
+    productDTO.setQuantity(cartItem.getQuantity());
+    return productDTO;
+  }
+}
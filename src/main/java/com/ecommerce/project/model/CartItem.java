@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @Entity
@@ -15,15 +16,19 @@ public class CartItem {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long cartItemId;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "cart_id")
   private Cart cart;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "product_id")
   private Product product;
 
   private Double discount;
   private Integer quantity;
   private Double productPrice;
+
+  @Version
+  @ColumnDefault("0")
+  private long version;
 }
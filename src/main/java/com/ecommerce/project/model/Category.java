@@ -6,7 +6,9 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity(name = "categories")
@@ -22,6 +24,9 @@ public class Category {
     @Size(min = 5, message = "Category name must contain at-least 5 characters")
     private String categoryName;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
+
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
     private List<Product> products;
 }
@@ -5,9 +5,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,10 +19,14 @@ import java.util.List;
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
-@Table (name = "products")
+@Table (name = "products", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"category_id", "product_name"})
+})
 public class Product {
+    // Same sequence Hibernate picked for AUTO; ids are handed out 50 at a time for batch inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long productId;
 
     @NotBlank
@@ -35,16 +42,21 @@ public class Product {
     private double discount;
     private double specialPrice;
 
-    @ManyToOne
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn (name = "seller_id")
     private User user;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany (mappedBy = "product", cascade = {
             CascadeType.PERSIST, CascadeType.MERGE
-    }, fetch = FetchType.EAGER)
+    }, fetch = FetchType.LAZY)
     private List<CartItem> products = new ArrayList<>();
 }
@@ -0,0 +1,23 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "revoked_tokens",
+    indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+  @Id
+  @Column(name = "token_id", length = 64)
+  private String tokenId;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+}
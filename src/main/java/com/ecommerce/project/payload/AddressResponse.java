@@ -16,4 +16,5 @@ public class AddressResponse {
     private Long totalElements;
     private Integer totalPages;
     private boolean lastPage;
+    private String nextCursor;
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.project.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The cart after a batch, with the operations that were rejected; the others were applied. */
+@Data
+@NoArgsConstructor
+public class CartBatchResponse {
+  private CartDTO cart;
+  private int applied;
+  private List<CartOperationError> errors = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change in a cart batch. ADD puts a new product in the cart, UPDATE changes the quantity of a
+ * line by {@code quantity} (negative to take some away) and REMOVE drops the line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+  public enum Type {
+    ADD,
+    UPDATE,
+    REMOVE
+  }
+
+  private Type type;
+  private Long productId;
+  private Integer quantity;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.project.payload;
+
+import java.time.Instant;
+
+/**
+ * Row count and latest change across everything a listing filters over. A page cannot change
+ * without one of them moving, so together they validate conditional requests without loading the
+ * page itself.
+ */
+public record CatalogVersion(long count, Instant updatedAt) {
+  public CatalogVersion(Long count, Instant productsUpdatedAt, Instant categoriesUpdatedAt) {
+    this(
+        count,
+        productsUpdatedAt == null
+                || (categoriesUpdatedAt != null && categoriesUpdatedAt.isAfter(productsUpdatedAt))
+            ? categoriesUpdatedAt
+            : productsUpdatedAt);
+  }
+
+  public String eTag() {
+    long micros =
+        updatedAt == null ? 0 : updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1000;
+    return "W/\"" + count + "-" + micros + "\"";
+  }
+
+  public long lastModified() {
+    return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+  }
+}
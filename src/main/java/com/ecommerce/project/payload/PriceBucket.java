@@ -0,0 +1,15 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Products with {@code from <= specialPrice < to}. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucket {
+  private double from;
+  private double to;
+  private long count;
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.payload;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Facets for a product query. Category counts ignore the query's category filter so the client can
+ * offer the other categories; the price histogram and totalHits respect it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResponse {
+  private long totalHits;
+  private List<CategoryFacet> categories;
+  private double priceBucketSize;
+  private List<PriceBucket> priceHistogram;
+}
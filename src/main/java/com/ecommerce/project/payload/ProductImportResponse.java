@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Outcome of a bulk import; only the first errors are listed, the counts cover every row. */
+@Data
+@NoArgsConstructor
+public class ProductImportResponse {
+  private long totalRows;
+  private long imported;
+  private long skipped;
+  private long failed;
+  private List<ProductImportError> errors = new ArrayList<>();
+  private boolean errorsTruncated;
+  private long elapsedMillis;
+}
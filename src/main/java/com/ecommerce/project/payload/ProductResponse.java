@@ -16,4 +16,5 @@ public class ProductResponse {
     private Long totalElements;
     private Integer totalPages;
     private Boolean lastPage;
+    private String nextCursor;
 }
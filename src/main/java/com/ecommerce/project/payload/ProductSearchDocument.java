@@ -0,0 +1,9 @@
+package com.ecommerce.project.payload;
+
+public record ProductSearchDocument(
+    Long productId,
+    String productName,
+    String description,
+    Long categoryId,
+    String categoryName,
+    double specialPrice) {}
@@ -2,5 +2,7 @@ package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface AddressRepository extends JpaRepository<Address, Long> {}
+public interface AddressRepository
+    extends JpaRepository<Address, Long>, JpaSpecificationExecutor<Address> {}
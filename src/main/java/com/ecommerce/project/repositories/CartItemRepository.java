@@ -12,4 +12,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.product.productId = ?2")
     void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED CartItem ci SET ci.productPrice = ?2 WHERE ci.product.productId = ?1 AND ci.productPrice <> ?2")
+    int updateProductPriceByProductId(Long productId, double productPrice);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.product.productId = ?1")
+    int deleteCartItemsByProductId(Long productId);
 }
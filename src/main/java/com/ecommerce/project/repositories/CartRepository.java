@@ -1,18 +1,63 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Cart;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
-  @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
+  // Cart reads fetch the lines and their products in the same statement, so rendering a cart
+  // never goes back to the database.
+  @Query(
+      "SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product "
+          + "WHERE c.user.email = ?1")
   Cart findCartByEmail(String email);
 
-  @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.cartId = ?2")
+  @Query(
+      "SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product "
+          + "WHERE c.user.email = ?1 AND c.cartId = ?2")
   Cart findCartByEmailAndCartId(String emailId, Long cartId);
 
-  @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.productId = ?1")
-  List<Cart> findCartsByProductId(Long productId);
+  // Keyset page of ids; the carts themselves come from findAllWithCartItemsByCartIdIn, since a
+  // fetch join cannot be limited in SQL.
+  @Query("SELECT c.cartId FROM Cart c WHERE c.cartId > ?1 ORDER BY c.cartId")
+  List<Long> findCartIdsAfter(Long cartId, Pageable pageDetails);
+
+  @Query(
+      "SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product "
+          + "WHERE c.cartId IN ?1 ORDER BY c.cartId")
+  List<Cart> findAllWithCartItemsByCartIdIn(Collection<Long> cartIds);
+
+  @Query("SELECT u.email FROM Cart c JOIN c.user u WHERE c.cartId = ?1")
+  String findEmailByCartId(Long cartId);
+
+  // Versioned bulk updates make edits that read the old rows fail and retry instead of overwriting.
+  // Must run before the lines are repriced, since the delta is taken from the old line price.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE VERSIONED Cart c SET c.totalPrice = c.totalPrice + "
+          + "(SELECT SUM((?2 - ci.productPrice) * ci.quantity) FROM CartItem ci "
+          + "WHERE ci.cart.cartId = c.cartId AND ci.product.productId = ?1 AND ci.productPrice <> ?2) "
+          + "WHERE c.cartId IN (SELECT ci.cart.cartId FROM CartItem ci "
+          + "WHERE ci.product.productId = ?1 AND ci.productPrice <> ?2)")
+  int repriceCartTotalsByProductId(Long productId, double productPrice);
+
+  @Query(
+      "SELECT COUNT(c) FROM Cart c WHERE c.totalPrice - "
+          + "(SELECT SUM((ci.productPrice - ci.productPrice * ci.discount / 100) * ci.quantity) "
+          + "FROM CartItem ci WHERE ci.cart.cartId = c.cartId AND ci.product.productId = ?1) < 0")
+  long countCartsTotallingLessThanProductLines(Long productId);
+
+  // Same discounted line total as CartServiceImpl.removeCartItem.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE VERSIONED Cart c SET c.totalPrice = c.totalPrice - "
+          + "(SELECT SUM((ci.productPrice - ci.productPrice * ci.discount / 100) * ci.quantity) "
+          + "FROM CartItem ci WHERE ci.cart.cartId = c.cartId AND ci.product.productId = ?1) "
+          + "WHERE c.cartId IN (SELECT ci.cart.cartId FROM CartItem ci WHERE ci.product.productId = ?1)")
+  int subtractProductLinesFromTotals(Long productId);
 }
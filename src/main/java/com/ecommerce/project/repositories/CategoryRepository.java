@@ -1,8 +1,14 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CatalogVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
-public interface CategoryRepository extends JpaRepository<Category,Long> {
+public interface CategoryRepository extends JpaRepository<Category,Long>, JpaSpecificationExecutor<Category> {
     Category findByCategoryName(String categoryName);
+
+    @Query("SELECT new com.ecommerce.project.payload.CatalogVersion(COUNT(c), MAX(c.updatedAt), MAX(c.updatedAt)) FROM categories c")
+    CatalogVersion findCatalogVersion();
 }
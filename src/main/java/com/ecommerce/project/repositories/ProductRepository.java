@@ -1,15 +1,61 @@
 package com.ecommerce.project.repositories;
 
-import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CatalogVersion;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductSearchDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface  ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
-    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
-    Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageDetails);
+    boolean existsByCategoryCategoryIdAndProductName(Long categoryId, String productName);
+
+    @Query("SELECT p.productName FROM Product p WHERE p.category.categoryId = ?1 AND p.productName IN ?2")
+    Set<String> findProductNamesIn(Long categoryId, Collection<String> productNames);
+
+    String PRODUCT_DTO = "new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.image, " +
+            "p.description, p.quantity, p.price, p.discount, p.specialPrice)";
+
+    // The same constructor arguments, for criteria queries.
+    List<String> PRODUCT_DTO_FIELDS = List.of("productId", "productName", "image", "description",
+            "quantity", "price", "discount", "specialPrice");
+
+    // Listing queries project straight into ProductDTO so no Product entities are hydrated.
+    @Query(value = "SELECT " + PRODUCT_DTO + " FROM Product p LEFT JOIN p.category c " +
+            "WHERE (?1 IS NULL OR LOWER(p.productName) LIKE ?1) AND (?2 IS NULL OR c.categoryName LIKE ?2)",
+            countQuery = "SELECT COUNT(p) FROM Product p LEFT JOIN p.category c " +
+                    "WHERE (?1 IS NULL OR LOWER(p.productName) LIKE ?1) AND (?2 IS NULL OR c.categoryName LIKE ?2)")
+    Page<ProductDTO> findProductDTOs(String keywordPattern, String category, Pageable pageDetails);
+
+    @Query(value = "SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.category.categoryId = ?1 ORDER BY p.price ASC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.categoryId = ?1")
+    Page<ProductDTO> findProductDTOsByCategoryIdOrderByPriceAsc(Long categoryId, Pageable pageDetails);
+
+    @Query(value = "SELECT " + PRODUCT_DTO + " FROM Product p WHERE LOWER(p.productName) LIKE LOWER(?1)",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE LOWER(p.productName) LIKE LOWER(?1)")
+    Page<ProductDTO> findProductDTOsByProductNameLike(String keyword, Pageable pageDetails);
+
+    String CATALOG_VERSION = "new com.ecommerce.project.payload.CatalogVersion(COUNT(p), MAX(p.updatedAt), MAX(c.updatedAt))";
+
+    @Query("SELECT " + CATALOG_VERSION + " FROM Product p LEFT JOIN p.category c WHERE (?1 IS NULL OR c.categoryName LIKE ?1)")
+    CatalogVersion findCatalogVersion(String category);
+
+    @Query("SELECT " + CATALOG_VERSION + " FROM Product p LEFT JOIN p.category c WHERE c.categoryId = ?1")
+    CatalogVersion findCatalogVersionByCategoryId(Long categoryId);
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.productId IN ?1")
+    List<ProductDTO> findProductDTOsByIdIn(Collection<Long> productIds);
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductSearchDocument(p.productId, p.productName, p.description, c.categoryId, c.categoryName, p.specialPrice) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.productId > ?1 ORDER BY p.productId")
+    List<ProductSearchDocument> findSearchDocumentsAfter(Long productId, Pageable pageDetails);
 }
@@ -0,0 +1,21 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+  @Query("SELECT t.tokenId FROM RevokedToken t WHERE t.expiresAt > ?1")
+  List<String> findTokenIdsExpiringAfter(Instant instant);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= ?1")
+  int deleteExpiredBefore(Instant instant);
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.project.security;
+
+import com.ecommerce.project.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs the delegate's hashing on a pool sized to the core count so that a signin/signup spike
+ * cannot occupy every request thread. Work beyond the bounded queue is rejected with {@link
+ * ServiceBusyException} instead of waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final long retryAfterSeconds;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejectedCounter;
+
+  public BoundedPasswordEncoder(
+      PasswordEncoder delegate,
+      int queueCapacity,
+      long retryAfterSeconds,
+      MeterRegistry meterRegistry) {
+    int poolSize = Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+
+    this.delegate = delegate;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.executor =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.encodeTimer =
+        Timer.builder("auth.password.hash").tag("operation", "encode").register(meterRegistry);
+    this.matchesTimer =
+        Timer.builder("auth.password.hash").tag("operation", "matches").register(meterRegistry);
+    this.rejectedCounter = Counter.builder("auth.password.rejected").register(meterRegistry);
+    Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(encodeTimer, () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  private <T> T submit(Timer timer, Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timer.recordCallable(task));
+    } catch (RejectedExecutionException exception) {
+      rejectedCounter.increment();
+      throw new ServiceBusyException(
+          "Too many authentication requests, please retry shortly.", retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", exception);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException runtimeException)
+        throw runtimeException;
+      throw new IllegalStateException(exception.getCause());
+    }
+  }
+}
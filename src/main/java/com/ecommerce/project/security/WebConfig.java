@@ -17,6 +17,7 @@ public class WebConfig implements WebMvcConfigurer {
         .allowedOrigins(frontEndUrl)
         .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
         .allowedHeaders("*")
+        .exposedHeaders("X-Next-Cursor")
         .allowCredentials(true);
   }
 }
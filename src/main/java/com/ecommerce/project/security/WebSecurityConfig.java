@@ -3,12 +3,15 @@ package com.ecommerce.project.security;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.repositories.RoleRepository;
 import com.ecommerce.project.repositories.UserRepository;
 import com.ecommerce.project.security.jwt.AuthEntryPointJwt;
 import com.ecommerce.project.security.jwt.AuthTokenFilter;
+import com.ecommerce.project.security.ratelimit.RateLimitFilter;
+import com.ecommerce.project.security.services.RoleRegistry;
 import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +39,16 @@ public class WebSecurityConfig {
 
   @Autowired private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private RateLimitFilter rateLimitFilter;
+
+  @Value("${spring.app.passwordHashing.queueCapacity:64}")
+  private int passwordHashingQueueCapacity;
+
+  @Value("${spring.app.passwordHashing.retryAfterSeconds:1}")
+  private long passwordHashingRetryAfterSeconds;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -57,7 +70,11 @@ public class WebSecurityConfig {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new BoundedPasswordEncoder(
+        new BCryptPasswordEncoder(),
+        passwordHashingQueueCapacity,
+        passwordHashingRetryAfterSeconds,
+        meterRegistry);
   }
 
   @Bean
@@ -85,6 +102,7 @@ public class WebSecurityConfig {
                     .anyRequest()
                     .authenticated());
     http.authenticationProvider(authenticationProvider());
+    http.addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class);
     http.addFilterBefore(
         authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
     http.headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin));
@@ -106,37 +124,12 @@ public class WebSecurityConfig {
 
   @Bean
   public CommandLineRunner initData(
-      RoleRepository roleRepository,
-      UserRepository userRepository,
-      PasswordEncoder passwordEncoder) {
+      RoleRegistry roleRegistry, UserRepository userRepository, PasswordEncoder passwordEncoder) {
     return args -> {
-      // Retrieve or create roles
-      Role userRole =
-          roleRepository
-              .findByRoleName(AppRole.ROLE_USER)
-              .orElseGet(
-                  () -> {
-                    Role newUserRole = new Role(AppRole.ROLE_USER);
-                    return roleRepository.save(newUserRole);
-                  });
-
-      Role sellerRole =
-          roleRepository
-              .findByRoleName(AppRole.ROLE_SELLER)
-              .orElseGet(
-                  () -> {
-                    Role newSellerROle = new Role(AppRole.ROLE_SELLER);
-                    return roleRepository.save(newSellerROle);
-                  });
-
-      Role adminRole =
-          roleRepository
-              .findByRoleName(AppRole.ROLE_ADMIN)
-              .orElseGet(
-                  () -> {
-                    Role newAdminRole = new Role(AppRole.ROLE_ADMIN);
-                    return roleRepository.save(newAdminRole);
-                  });
+      // Roles are created by the registry at startup
+      Role userRole = roleRegistry.get(AppRole.ROLE_USER);
+      Role sellerRole = roleRegistry.get(AppRole.ROLE_SELLER);
+      Role adminRole = roleRegistry.get(AppRole.ROLE_ADMIN);
 
       Set<Role> userRoles = Set.of(userRole);
       Set<Role> sellerRoles = Set.of(sellerRole);
@@ -166,6 +159,7 @@ public class WebSecurityConfig {
               user -> {
                 user.setRoles(userRoles);
                 userRepository.save(user);
+                userDetailsService.evictUser(user.getUserName());
               });
 
       userRepository
@@ -174,6 +168,7 @@ public class WebSecurityConfig {
               seller -> {
                 seller.setRoles(sellerRoles);
                 userRepository.save(seller);
+                userDetailsService.evictUser(seller.getUserName());
               });
 
       userRepository
@@ -182,6 +177,7 @@ public class WebSecurityConfig {
               admin -> {
                 admin.setRoles(adminRoles);
                 userRepository.save(admin);
+                userDetailsService.evictUser(admin.getUserName());
               });
     };
   }
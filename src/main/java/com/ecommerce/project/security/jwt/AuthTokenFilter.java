@@ -1,6 +1,9 @@
 package com.ecommerce.project.security.jwt;
 
+import com.ecommerce.project.security.services.TokenRevocationService;
+import com.ecommerce.project.security.services.UserDetailsImpl;
 import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,10 +11,14 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -23,6 +30,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
   @Autowired private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired private TokenRevocationService tokenRevocationService;
+
+  @Value("${spring.app.jwtStatelessPrincipal:true}")
+  private boolean statelessPrincipal;
+
+  private final SecurityContextRepository securityContextRepository =
+      new RequestAttributeSecurityContextRepository();
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
   @Override
@@ -33,16 +48,20 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJWTToken(jwt);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      Claims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+      if (claims != null && !tokenRevocationService.isRevoked(claims.getId())) {
+        UserDetails userDetails = loadUserDetails(claims);
 
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails, null, userDetails.getAuthorities());
 
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        SecurityContext context = SecurityContextHolder.getContext();
+        context.setAuthentication(authentication);
+        // Also kept on the request, where the async dispatch that completes a streamed response
+        // is authorised from; this filter does not run again for that dispatch.
+        securityContextRepository.saveContext(context, request, response);
         logger.debug("Roles from JWT: {}", userDetails.getAuthorities());
       }
     } catch (Exception e) {
@@ -51,6 +70,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  // Tokens issued before userId/email/roles were embedded still go through the database.
+  private UserDetails loadUserDetails(Claims claims) {
+    if (statelessPrincipal) {
+      UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+      if (userDetails != null) return userDetails;
+    }
+    return userDetailsService.loadUserByUsername(claims.getSubject());
+  }
+
 //  private String parseJwt(HttpServletRequest request) {
 //    String jwt = jwtUtils.getJwtFromCookies(request);
 //    logger.debug("AuthTokenFilter.java : {}", jwt);
@@ -1,21 +1,37 @@
 package com.ecommerce.project.security.jwt;
 
 import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
@@ -30,8 +46,39 @@ public class JwtUtils {
   @Value("${spring.ecom.app.jwtCookieName}")
   private String jwtCookie;
 
+  @Value("${spring.app.jwtCacheMaxSize:10000}")
+  private long jwtCacheMaxSize;
+
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+  private static final String USER_ID_CLAIM = "userId";
+  private static final String EMAIL_CLAIM = "email";
+  private static final String ROLES_CLAIM = "roles";
+
+  private SecretKey key;
+
+  private JwtParser jwtParser;
+
+  // Verified claims keyed by the SHA-256 of the token; each entry expires with its token.
+  private Cache<String, Claims> verifiedTokens;
+
+  @PostConstruct
+  public void init() {
+    key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    jwtParser = Jwts.parser().verifyWith(key).build();
+    verifiedTokens =
+        Caffeine.newBuilder()
+            .maximumSize(jwtCacheMaxSize)
+            .expireAfter(
+                Expiry.creating(
+                    (String tokenHash, Claims claims) ->
+                        claims.getExpiration() != null
+                            ? Duration.ofMillis(
+                                claims.getExpiration().getTime() - System.currentTimeMillis())
+                            : Duration.ofMillis(jwtExpirationMs)))
+            .build();
+  }
+
   public String getJwtFromCookies(HttpServletRequest request) {
     Cookie cookie = WebUtils.getCookie(request, jwtCookie);
     if (cookie != null) {
@@ -51,7 +98,7 @@ public class JwtUtils {
   }
 
   public ResponseCookie generateJwtCookie(UserDetailsImpl userPrincipal) {
-    String jwt = generateTokenFromUsername(userPrincipal.getUsername());
+    String jwt = generateTokenFromUsername(userPrincipal);
     return ResponseCookie.from(jwtCookie, jwt)
         .path("/api")
         .maxAge(24 * 60 * 60)
@@ -63,9 +110,16 @@ public class JwtUtils {
     return ResponseCookie.from(jwtCookie, null).path("/api").build();
   }
 
-  public String generateTokenFromUsername(String username) {
+  public String generateTokenFromUsername(UserDetailsImpl userPrincipal) {
+    List<String> roles =
+        userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+
     return Jwts.builder()
-        .subject(username)
+        .id(UUID.randomUUID().toString())
+        .subject(userPrincipal.getUsername())
+        .claim(USER_ID_CLAIM, userPrincipal.getId())
+        .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+        .claim(ROLES_CLAIM, roles)
         .issuedAt(new Date())
         .expiration(new Date((new Date().getTime() + jwtExpirationMs)))
         .signWith(key())
@@ -73,32 +127,66 @@ public class JwtUtils {
   }
 
   public String getUserNameFromJWTToken(String token) {
-    return Jwts.parser()
-        .verifyWith((SecretKey) key())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload()
-        .getSubject();
+    Claims claims = getVerifiedClaims(token);
+    return claims != null ? claims.getSubject() : null;
+  }
+
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Long userId = claims.get(USER_ID_CLAIM, Long.class);
+    List<?> roles = claims.get(ROLES_CLAIM, List.class);
+    if (userId == null || roles == null) return null;
+
+    List<GrantedAuthority> authorities =
+        roles.stream()
+            .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+            .toList();
+
+    return new UserDetailsImpl(
+        authorities, claims.get(EMAIL_CLAIM, String.class), userId, null, claims.getSubject());
   }
 
   public Key key() {
-    return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    return key;
   }
 
   public boolean validateJwtToken(String authToken) {
+    return getVerifiedClaims(authToken) != null;
+  }
+
+  public Claims getVerifiedClaims(String authToken) {
+    String tokenHash = hash(authToken);
+    Claims claims = verifiedTokens.getIfPresent(tokenHash);
+    if (claims != null) return claims;
+
+    claims = parseClaims(authToken);
+    if (claims != null) verifiedTokens.put(tokenHash, claims);
+    return claims;
+  }
+
+  private Claims parseClaims(String authToken) {
     try {
-      System.out.println("Validate");
-      Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
-      return true;
+      return jwtParser.parseSignedClaims(authToken).getPayload();
     } catch (MalformedJwtException exception) {
       logger.error("Invalid JWT token: {}", exception.getMessage());
     } catch (ExpiredJwtException exception) {
       logger.error("JWT token is expired: {}", exception.getMessage());
     } catch (UnsupportedJwtException exception) {
       logger.error("JWT token is unsupported: {}", exception.getMessage());
+    } catch (SignatureException exception) {
+      logger.error("Invalid JWT signature: {}", exception.getMessage());
     } catch (IllegalArgumentException exception) {
       logger.error("JWT claim string is empty: {}", exception.getMessage());
     }
-    return false;
+    return null;
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
   }
 }
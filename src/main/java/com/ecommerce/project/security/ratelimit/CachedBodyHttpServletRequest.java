@@ -0,0 +1,73 @@
+package com.ecommerce.project.security.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Lets a filter inspect the request body and still hand it to the controller.
+class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+  private final byte[] body;
+
+  CachedBodyHttpServletRequest(HttpServletRequest request, byte[] body) {
+    super(request);
+    this.body = body;
+  }
+
+  byte[] getBody() {
+    return body;
+  }
+
+  @Override
+  public ServletInputStream getInputStream() {
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+    return new ServletInputStream() {
+      @Override
+      public boolean isFinished() {
+        return inputStream.available() == 0;
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      // The wrapped stream was drained into the body, so there is nothing to wait for: the
+      // listener is told at once that data is available and, once it has read it, that it is done.
+      @Override
+      public void setReadListener(ReadListener readListener) {
+        try {
+          if (!isFinished()) readListener.onDataAvailable();
+          if (isFinished()) readListener.onAllDataRead();
+        } catch (IOException exception) {
+          readListener.onError(exception);
+        }
+      }
+
+      @Override
+      public int read() {
+        return inputStream.read();
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) {
+        return inputStream.read(buffer, offset, length);
+      }
+    };
+  }
+
+  @Override
+  public BufferedReader getReader() {
+    Charset charset =
+        getCharacterEncoding() != null
+            ? Charset.forName(getCharacterEncoding())
+            : StandardCharsets.UTF_8;
+    return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+  }
+}
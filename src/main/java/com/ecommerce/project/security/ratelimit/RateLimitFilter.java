@@ -0,0 +1,126 @@
+package com.ecommerce.project.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+  private static final String SIGNIN_PATH = "/api/auth/signin";
+  private static final String SIGNUP_PATH = "/api/auth/signup";
+  private static final int MAX_BODY_BYTES = 16 * 1024;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Value("${spring.app.rateLimit.signin.capacity:10}")
+  private int signinCapacity;
+
+  @Value("${spring.app.rateLimit.signin.refillPeriodMs:60000}")
+  private long signinRefillPeriodMs;
+
+  @Value("${spring.app.rateLimit.signup.capacity:5}")
+  private int signupCapacity;
+
+  @Value("${spring.app.rateLimit.signup.refillPeriodMs:60000}")
+  private long signupRefillPeriodMs;
+
+  @Value("${spring.app.rateLimit.maxKeys:100000}")
+  private int maxKeys;
+
+  private Map<String, TokenBucketRateLimiter> limiters;
+
+  @PostConstruct
+  public void init() {
+    limiters =
+        Map.of(
+            SIGNIN_PATH, new TokenBucketRateLimiter(signinCapacity, signinRefillPeriodMs, maxKeys),
+            SIGNUP_PATH, new TokenBucketRateLimiter(signupCapacity, signupRefillPeriodMs, maxKeys));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"POST".equals(request.getMethod()) || !limiters.containsKey(request.getServletPath());
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    TokenBucketRateLimiter limiter = limiters.get(request.getServletPath());
+
+    long waitNanos = limiter.tryAcquire("ip:" + request.getRemoteAddr());
+    if (waitNanos > 0) {
+      reject(request, response, waitNanos);
+      return;
+    }
+
+    byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+    if (body.length > MAX_BODY_BYTES) {
+      response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+      return;
+    }
+    CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, body);
+
+    String username = extractUsername(body);
+    if (username != null) {
+      waitNanos = limiter.tryAcquire("user:" + username.toLowerCase(Locale.ROOT));
+      if (waitNanos > 0) {
+        reject(request, response, waitNanos);
+        return;
+      }
+    }
+
+    filterChain.doFilter(cachedRequest, response);
+  }
+
+  @Scheduled(fixedDelayString = "${spring.app.rateLimit.evictionIntervalMs:60000}")
+  public void evictIdleBuckets() {
+    limiters.values().forEach(TokenBucketRateLimiter::evictIdle);
+  }
+
+  private String extractUsername(byte[] body) {
+    try {
+      JsonNode username = objectMapper.readTree(body).get("username");
+      return username != null && username.isTextual() ? username.asText() : null;
+    } catch (IOException exception) {
+      return null;
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+      throws IOException {
+    logger.warn("Rate limit exceeded for {} from {}", request.getServletPath(), request.getRemoteAddr());
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+    final Map<String, Object> body = new HashMap<>();
+    body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+    body.put("error", "too_many_requests");
+    body.put("message", "Too many attempts, please retry later.");
+    body.put("path", request.getServletPath());
+    objectMapper.writeValue(response.getOutputStream(), body);
+  }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.project.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by an arbitrary string, implemented as GCRA: each bucket is a
+ * single "theoretical arrival time" updated by CAS. A bucket left alone for a whole refill period
+ * is full again, so it carries no state worth keeping and expires; beyond maxKeys the least useful
+ * buckets are dropped, so a flood of new keys costs no more than any other request.
+ */
+public class TokenBucketRateLimiter {
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final Cache<String, AtomicLong> buckets;
+
+  public TokenBucketRateLimiter(int capacity, long refillPeriodMs, int maxKeys) {
+    this(capacity, refillPeriodMs, maxKeys, Ticker.systemTicker());
+  }
+
+  TokenBucketRateLimiter(int capacity, long refillPeriodMs, int maxKeys, Ticker ticker) {
+    this.emissionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillPeriodMs) / capacity;
+    this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+    this.buckets =
+        Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(Duration.ofMillis(refillPeriodMs))
+            .ticker(ticker)
+            .build();
+  }
+
+  // Returns 0 when a token was taken, otherwise the nanoseconds until the next one is available.
+  public long tryAcquire(String key) {
+    return tryAcquire(key, System.nanoTime());
+  }
+
+  long tryAcquire(String key, long now) {
+    AtomicLong arrival = buckets.get(key, k -> new AtomicLong(now));
+
+    while (true) {
+      long current = arrival.get();
+      long theoreticalArrival = Math.max(current, now);
+      long waitNanos = theoreticalArrival - burstToleranceNanos - now;
+      if (waitNanos > 0) return waitNanos;
+      if (arrival.compareAndSet(current, theoreticalArrival + emissionIntervalNanos)) return 0;
+    }
+  }
+
+  // Expired buckets are otherwise only swept as a side effect of later requests.
+  public void evictIdle() {
+    buckets.cleanUp();
+  }
+
+  public long size() {
+    return buckets.estimatedSize();
+  }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.repositories.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Roles are a fixed enum, so they are loaded (and created if missing) once at startup.
+@Component
+public class RoleRegistry {
+  @Autowired private RoleRepository roleRepository;
+
+  private Map<AppRole, Role> roles;
+
+  @PostConstruct
+  public void init() {
+    Map<AppRole, Role> registry = new EnumMap<>(AppRole.class);
+    roleRepository.findAll().forEach(role -> registry.put(role.getRoleName(), role));
+    for (AppRole appRole : AppRole.values())
+      registry.computeIfAbsent(appRole, missing -> roleRepository.save(new Role(missing)));
+    roles = Collections.unmodifiableMap(registry);
+  }
+
+  public Role get(AppRole appRole) {
+    return roles.get(appRole);
+  }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.RevokedToken;
+import com.ecommerce.project.repositories.RevokedTokenRepository;
+import com.ecommerce.project.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Revoked token ids (jti) are persisted in {@code revoked_tokens} and mirrored into a Bloom filter,
+ * so checking a token that was never revoked costs no I/O. Only filter hits go to the database.
+ * The filter is rebuilt at startup and periodically, which also drops expired entries and picks up
+ * revocations made by other instances.
+ */
+@Service
+public class TokenRevocationService {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+  @Autowired private RevokedTokenRepository revokedTokenRepository;
+
+  @Value("${spring.app.tokenRevocation.expectedRevocations:100000}")
+  private int expectedRevocations;
+
+  @Value("${spring.app.tokenRevocation.falsePositiveRate:0.01}")
+  private double falsePositiveRate;
+
+  private volatile BloomFilter revokedFilter;
+
+  @PostConstruct
+  public void init() {
+    rebuild();
+  }
+
+  public synchronized void revoke(String tokenId, Date expiresAt) {
+    if (tokenId == null || expiresAt == null) return;
+    revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt.toInstant()));
+    revokedFilter.put(tokenId);
+  }
+
+  public boolean isRevoked(String tokenId) {
+    if (tokenId == null || !revokedFilter.mightContain(tokenId)) return false;
+    return revokedTokenRepository.existsById(tokenId);
+  }
+
+  @Scheduled(
+      initialDelayString = "${spring.app.tokenRevocation.rebuildIntervalMs:60000}",
+      fixedDelayString = "${spring.app.tokenRevocation.rebuildIntervalMs:60000}")
+  public void purgeAndRebuild() {
+    int purged = revokedTokenRepository.deleteExpiredBefore(Instant.now());
+    logger.debug("Purged {} expired revoked tokens", purged);
+    rebuild();
+  }
+
+  // Synchronized with revoke() so a revocation cannot slip in between loading and swapping.
+  private synchronized void rebuild() {
+    List<String> tokenIds = revokedTokenRepository.findTokenIdsExpiringAfter(Instant.now());
+    BloomFilter filter =
+        new BloomFilter(Math.max(expectedRevocations, tokenIds.size() * 2), falsePositiveRate);
+    tokenIds.forEach(filter::put);
+    revokedFilter = filter;
+    logger.debug("Rebuilt revocation filter with {} tokens", tokenIds.size());
+  }
+}
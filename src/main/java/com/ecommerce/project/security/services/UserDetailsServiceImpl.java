@@ -2,8 +2,15 @@ package com.ecommerce.project.security.services;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,9 +21,44 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${spring.app.userCache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${spring.app.userCache.maxSize:10000}")
+    private long cacheMaxSize;
+
+    @Value("${spring.app.userCache.ttlSeconds:300}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, UserDetailsImpl> userCache;
+
+    @PostConstruct
+    public void init() {
+        userCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "userDetails");
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (!cacheEnabled)
+            return loadUser(username);
+        return userCache.get(username, this::loadUser);
+    }
+
+    // Must be called whenever a user's roles or credentials change.
+    public void evictUser(String username) {
+        userCache.invalidate(username);
+    }
+
+    private UserDetailsImpl loadUser(String username) {
         User user = userRepository.findByUserName(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
@@ -12,6 +12,8 @@ public interface AddressService {
 
     AddressResponse getAllAddresses(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    AddressResponse getAllAddressesByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder);
+
     AddressDTO getAddressById(Long addressId);
 
     List<AddressDTO> getAddressByUser(User user);
@@ -2,25 +2,28 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.AddressMapper;
 import com.ecommerce.project.model.Address;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.AddressDTO;
 import com.ecommerce.project.payload.AddressResponse;
 import com.ecommerce.project.repositories.AddressRepository;
 import com.ecommerce.project.repositories.UserRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.util.KeysetCursor;
+import com.ecommerce.project.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
 public class AddressServiceImpl implements AddressService {
-  @Autowired private ModelMapper modelMapper;
+  @Autowired private AddressMapper addressMapper;
 
   @Autowired private AddressRepository addressRepository;
 
@@ -28,7 +31,7 @@ public class AddressServiceImpl implements AddressService {
 
   @Override
   public AddressDTO createAddress(AddressDTO addressDTO, User user) {
-    Address address = modelMapper.map(addressDTO, Address.class);
+    Address address = addressMapper.toAddress(addressDTO);
 
     List<Address> addressList = user.getAddresses();
     addressList.add(address);
@@ -37,7 +40,7 @@ public class AddressServiceImpl implements AddressService {
     address.setUser(user);
     Address savedAddress = addressRepository.save(address);
 
-    return modelMapper.map(savedAddress, AddressDTO.class);
+    return addressMapper.toAddressDTO(savedAddress);
   }
 
   @Override
@@ -55,7 +58,7 @@ public class AddressServiceImpl implements AddressService {
     if (addresses.isEmpty()) throw new APIException("No addresses created till now.");
 
     List<AddressDTO> addressDTOS =
-        addresses.stream().map(address -> modelMapper.map(address, AddressDTO.class)).toList();
+        addresses.stream().map(addressMapper::toAddressDTO).toList();
 
     AddressResponse addressResponse = new AddressResponse();
     addressResponse.setContent(addressDTOS);
@@ -67,19 +70,47 @@ public class AddressServiceImpl implements AddressService {
     return addressResponse;
   }
 
+  @Override
+  public AddressResponse getAllAddressesByCursor(
+      String cursor, Integer pageSize, String sortBy, String sortOrder) {
+    KeysetPage<Address> addressPage =
+        KeysetCursor.fetch(
+            addressRepository,
+            Specification.unrestricted(),
+            cursor,
+            sortBy,
+            "addressId",
+            sortOrder,
+            pageSize);
+
+    List<Address> addresses = addressPage.content();
+    if (addresses.isEmpty() && (cursor == null || cursor.isEmpty()))
+      throw new APIException("No addresses created till now.");
+
+    List<AddressDTO> addressDTOS =
+        addresses.stream().map(addressMapper::toAddressDTO).toList();
+
+    AddressResponse addressResponse = new AddressResponse();
+    addressResponse.setContent(addressDTOS);
+    addressResponse.setPageSize(pageSize);
+    addressResponse.setLastPage(addressPage.isLast());
+    addressResponse.setNextCursor(addressPage.nextCursor());
+    return addressResponse;
+  }
+
   @Override
   public AddressDTO getAddressById(Long addressId) {
     Address address =
         addressRepository
             .findById(addressId)
             .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
-    return modelMapper.map(address, AddressDTO.class);
+    return addressMapper.toAddressDTO(address);
   }
 
   @Override
   public List<AddressDTO> getAddressByUser(User user) {
     List<Address> addresses = user.getAddresses();
-    return addresses.stream().map(address -> modelMapper.map(address, AddressDTO.class)).toList();
+    return addresses.stream().map(addressMapper::toAddressDTO).toList();
   }
 
   @Override
@@ -104,7 +135,7 @@ public class AddressServiceImpl implements AddressService {
 
     userRepository.save(user);
 
-    return modelMapper.map(savedAddress, AddressDTO.class);
+    return addressMapper.toAddressDTO(savedAddress);
   }
 
   @Override
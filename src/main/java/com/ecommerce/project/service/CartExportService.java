@@ -0,0 +1,8 @@
+package com.ecommerce.project.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface CartExportService {
+  void exportCarts(OutputStream out) throws IOException;
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.mapper.CartMapper;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.repositories.CartRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes every cart as NDJSON, one {@link CartDTO} per line. Carts are read in keyset chunks of
+ * {@code chunkSize}, each with its lines and products fetched in one statement, and the persistence
+ * context is cleared after every chunk, so memory stays flat however many carts there are.
+ */
+@Service
+public class CartExportServiceImpl implements CartExportService {
+  private static final Logger logger = LoggerFactory.getLogger(CartExportServiceImpl.class);
+
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  @Autowired private CartRepository cartRepository;
+
+  @Autowired private CartMapper cartMapper;
+
+  @Autowired private CartStore cartStore;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Value("${spring.app.cartExport.chunkSize:500}")
+  private int chunkSize;
+
+  private TransactionTemplate transactionTemplate;
+
+  private ObjectWriter cartWriter;
+
+  @PostConstruct
+  public void init() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(true);
+    // Flushed once per chunk instead of after every cart.
+    cartWriter =
+        objectMapper.writerFor(CartDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  @Override
+  public void exportCarts(OutputStream out) throws IOException {
+    cartStore.flushAll();
+
+    long start = System.nanoTime();
+    JsonGenerator generator =
+        objectMapper.getFactory().createGenerator(new BufferedOutputStream(out, WRITE_BUFFER_SIZE));
+    // Lines are already separated by the newline; Jackson would add a space between root values.
+    generator.setRootValueSeparator(null);
+    long[] carts = {0};
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            Long after = 0L;
+            while (true) {
+              List<Long> cartIds =
+                  cartRepository.findCartIdsAfter(after, PageRequest.of(0, chunkSize));
+              if (cartIds.isEmpty()) return;
+              try {
+                for (Cart cart : cartRepository.findAllWithCartItemsByCartIdIn(cartIds)) {
+                  cartWriter.writeValue(generator, cartMapper.toCartDTO(cart));
+                  generator.writeRaw('\n');
+                  carts[0]++;
+                }
+                generator.flush();
+              } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+              }
+              entityManager.clear();
+              after = cartIds.get(cartIds.size() - 1);
+            }
+          });
+    } catch (UncheckedIOException exception) {
+      // Usually the client went away; the transaction is rolled back by now.
+      throw exception.getCause();
+    }
+
+    logger.info(
+        "Exported {} carts as NDJSON in {} ms", carts[0], (System.nanoTime() - start) / 1_000_000);
+  }
+}
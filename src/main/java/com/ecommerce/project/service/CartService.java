@@ -1,6 +1,9 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.payload.CartBatchResponse;
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperation;
+import com.ecommerce.project.util.KeysetPage;
 import jakarta.transaction.Transactional;
 
 import java.util.List;
@@ -8,15 +11,21 @@ import java.util.List;
 public interface CartService {
     CartDTO addProductToCart(Long productId, Integer quantity);
 
-    List<CartDTO> getAllCarts();
+    /** Applies the operations in order to the user's cart; rejected ones are reported, not fatal. */
+    CartBatchResponse applyCartOperations(List<CartOperation> operations);
+
+    /** One keyset page of carts in id order; the cursor of the next page is null on the last. */
+    KeysetPage<CartDTO> getCarts(String cursor, Integer pageSize);
 
     CartDTO getCart(String emailId, Long cartId);
 
-    @Transactional
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
 
-    @Transactional
     String deleteProductFromCart(Long cartId, Long productId);
 
-    void updateProductInCarts(Long cartId, Long productId);
+    @Transactional
+    void repriceProductInCarts(Long productId, double productPrice);
+
+    @Transactional
+    void deleteProductFromCarts(Long productId);
 }
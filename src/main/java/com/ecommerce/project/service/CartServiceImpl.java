@@ -2,20 +2,30 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CartMapper;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartBatchResponse;
 import com.ecommerce.project.payload.CartDTO;
-import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.CartOperation;
+import com.ecommerce.project.payload.CartOperationError;
 import com.ecommerce.project.repositories.CartItemRepository;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.ProductRepository;
 import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.KeysetCursor;
+import com.ecommerce.project.util.KeysetPage;
 import jakarta.transaction.Transactional;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Stream;
-import org.modelmapper.ModelMapper;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -28,135 +38,214 @@ public class CartServiceImpl implements CartService {
 
   @Autowired private CartItemRepository cartItemRepository;
 
-  @Autowired private ModelMapper modelMapper;
+  @Autowired private CartMapper cartMapper;
+
+  @Autowired private CartStore cartStore;
+
+  @Value("${spring.app.cartBatch.maxOperations:100}")
+  private int maxBatchOperations;
+
+  @Value("${spring.app.cartListing.maxPageSize:500}")
+  private int maxPageSize;
 
   @Override
   public CartDTO addProductToCart(Long productId, Integer quantity) {
-    Cart cart = createCart();
-
     Product product =
         productRepository
             .findById(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-    CartItem cartItem =
-        cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
-
-    if (cartItem != null)
-      throw new APIException("Product " + product.getProductName() + " already exists in the Cart");
-
-    if (product.getQuantity() == 0)
-      throw new APIException(product.getProductName() + " is not available");
+    return cartStore.update(
+        authUtil.loggedInEmail(),
+        authUtil::loggedInUserReference,
+        cart -> {
+          addCartItem(cart, product, quantity);
+          return cartMapper.toCartDTO(cart);
+        });
+  }
 
-    if (product.getQuantity() < quantity)
+  // Each cart edit below runs in a transaction of the cart store's, which retries version conflicts.
+  @Override
+  public CartBatchResponse applyCartOperations(List<CartOperation> operations) {
+    if (operations == null || operations.isEmpty())
+      throw new APIException("At least one cart operation is required");
+    if (operations.size() > maxBatchOperations)
       throw new APIException(
-          "Please, make an order of the "
-              + product.getProductName()
-              + " less than or equal to the quantity "
-              + product.getQuantity()
-              + ".");
+          "A cart batch can hold at most " + maxBatchOperations + " operations");
+
+    Set<Long> productIds = new HashSet<>();
+    operations.forEach(
+        operation -> {
+          if (operation != null && operation.getProductId() != null)
+            productIds.add(operation.getProductId());
+        });
+    Map<Long, Product> products =
+        productRepository.findAllById(productIds).stream()
+            .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+    return cartStore.update(
+        authUtil.loggedInEmail(),
+        authUtil::loggedInUserReference,
+        cart -> {
+          CartBatchResponse response = new CartBatchResponse();
+          for (int i = 0; i < operations.size(); i++) {
+            CartOperation operation = operations.get(i);
+            Long productId = operation == null ? null : operation.getProductId();
+            try {
+              applyCartOperation(cart, operation, products.get(productId));
+              response.setApplied(response.getApplied() + 1);
+            } catch (APIException | ResourceNotFoundException exception) {
+              response
+                  .getErrors()
+                  .add(new CartOperationError(i, productId, exception.getMessage()));
+            }
+          }
+          response.setCart(cartMapper.toCartDTO(cart));
+          return response;
+        });
+  }
 
-    CartItem newCartItem = new CartItem();
+  @Override
+  public KeysetPage<CartDTO> getCarts(String cursor, Integer pageSize) {
+    if (pageSize < 1 || pageSize > maxPageSize)
+      throw new APIException("Page size must be between 1 and " + maxPageSize);
+
+    cartStore.flushAll();
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    List<Long> cartIds =
+        cartRepository.findCartIdsAfter(
+            after == null ? 0L : after.id(), PageRequest.of(0, pageSize + 1));
+    if (cartIds.isEmpty() && after == null) throw new APIException("No cart exists");
+
+    String nextCursor = null;
+    if (cartIds.size() > pageSize) {
+      cartIds = cartIds.subList(0, pageSize);
+      nextCursor = new KeysetCursor(null, cartIds.get(pageSize - 1)).encode();
+    }
 
-    newCartItem.setProduct(product);
-    newCartItem.setCart(cart);
-    newCartItem.setQuantity(quantity);
-    newCartItem.setDiscount(product.getDiscount());
-    newCartItem.setProductPrice(product.getPrice());
-    cartItemRepository.save(newCartItem);
+    List<CartDTO> cartDTOS =
+        cartRepository.findAllWithCartItemsByCartIdIn(cartIds).stream()
+            .map(cartMapper::toCartDTO)
+            .toList();
+    return new KeysetPage<>(cartDTOS, nextCursor);
+  }
 
-    product.setQuantity(product.getQuantity());
-    cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice() * quantity));
-    cart.getCartItems().add(newCartItem);
-    cartRepository.save(cart);
+  @Override
+  public CartDTO getCart(String emailId, Long cartId) {
+    return cartStore.read(
+        emailId,
+        cart -> {
+          if (cart == null || !cart.getCartId().equals(cartId))
+            throw new ResourceNotFoundException("Cart", "cartId", cartId);
+
+          return cartMapper.toCartDTO(cart);
+        });
+  }
 
-    CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+  @Override
+  public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+    Product product =
+        productRepository
+            .findById(productId)
+            .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-    List<CartItem> cartItems = cart.getCartItems();
-    Stream<ProductDTO> productStream =
-        cartItems.stream()
-            .map(
-                item -> {
-                  ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
-                  map.setQuantity(item.getQuantity());
-                  return map;
-                });
+    return cartStore.update(
+        authUtil.loggedInEmail(),
+        null,
+        cart -> {
+          changeCartItemQuantity(cart, product, quantity);
+          return cartMapper.toCartDTO(cart);
+        });
+  }
 
-    cartDTO.setProducts(productStream.toList());
+  @Override
+  public String deleteProductFromCart(Long cartId, Long productId) {
+    return cartStore.updateById(
+        cartId,
+        cart -> {
+          CartItem cartItem = findCartItem(cart, productId);
 
-    return cartDTO;
-  }
+          if (cartItem == null)
+            throw new ResourceNotFoundException("Product", "productId", productId);
 
-  private Cart createCart() {
-    Cart userCart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
-    if (userCart != null) {
-      return userCart;
-    }
-    Cart cart = new Cart();
-    cart.setTotalPrice(0.0);
-    cart.setUser(authUtil.loggedInUser());
-    return cartRepository.save(cart);
+          removeCartItem(cart, cartItem);
+
+          return "Product " + cartItem.getProduct().getProductName() + " removed from the cart!!";
+        });
   }
 
   @Override
-  public List<CartDTO> getAllCarts() {
-    List<Cart> carts = cartRepository.findAll();
-    if (carts.isEmpty()) throw new APIException("No cart exists");
-
-    return carts.stream()
-        .map(
-            cart -> {
-              CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-              List<ProductDTO> products =
-                  cart.getCartItems().stream()
-                      .map(
-                          item -> {
-                            ProductDTO productDTO =
-                                modelMapper.map(item.getProduct(), ProductDTO.class);
-                            productDTO.setQuantity(item.getQuantity());
-                            return productDTO;
-                          })
-                      .toList();
-              cartDTO.setProducts(products);
-              return cartDTO;
-            })
-        .toList();
+  @Transactional
+  public void repriceProductInCarts(Long productId, double productPrice) {
+    cartStore.bulk(
+        () -> {
+          cartRepository.repriceCartTotalsByProductId(productId, productPrice);
+          return cartItemRepository.updateProductPriceByProductId(productId, productPrice);
+        });
   }
 
   @Override
-  public CartDTO getCart(String emailId, Long cartId) {
-    Cart cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
-    if (cart == null) throw new ResourceNotFoundException("Cart", "cartId", cartId);
-
-    CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-    cart.getCartItems().forEach(c -> c.getProduct().setQuantity(c.getQuantity()));
-    List<ProductDTO> products =
-        cart.getCartItems().stream()
-            .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
-            .toList();
-    cartDTO.setProducts(products);
+  @Transactional
+  public void deleteProductFromCarts(Long productId) {
+    cartStore.bulk(
+        () -> {
+          if (cartRepository.countCartsTotallingLessThanProductLines(productId) > 0)
+            throw new APIException("Total price cannot be negative.");
+
+          cartRepository.subtractProductLinesFromTotals(productId);
+          return cartItemRepository.deleteCartItemsByProductId(productId);
+        });
+  }
 
-    return cartDTO;
+  // Each operation is validated before it touches the cart, so a rejected one changes nothing.
+  private static void applyCartOperation(Cart cart, CartOperation operation, Product product) {
+    if (operation == null || operation.getType() == null)
+      throw new APIException("Operation type is required");
+    if (operation.getProductId() == null) throw new APIException("Product id is required");
+    if (product == null)
+      throw new ResourceNotFoundException("Product", "productId", operation.getProductId());
+
+    switch (operation.getType()) {
+      case ADD -> {
+        if (operation.getQuantity() == null || operation.getQuantity() <= 0)
+          throw new APIException("Quantity must be positive");
+        addCartItem(cart, product, operation.getQuantity());
+      }
+      case UPDATE -> {
+        if (operation.getQuantity() == null) throw new APIException("Quantity is required");
+        changeCartItemQuantity(cart, product, operation.getQuantity());
+      }
+      case REMOVE -> {
+        CartItem cartItem = findCartItem(cart, product.getProductId());
+        if (cartItem == null)
+          throw new APIException(
+              "Product " + product.getProductName() + " not available in the cart!!");
+        removeCartItem(cart, cartItem);
+      }
+    }
   }
 
-  @Override
-  @Transactional
-  public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
-    String emailId = authUtil.loggedInEmail();
-    Cart userCart = cartRepository.findCartByEmail(emailId);
-    Long cartId = userCart.getCartId();
+  private static void addCartItem(Cart cart, Product product, Integer quantity) {
+    // The lines came with the cart; no need to ask the database again.
+    if (findCartItem(cart, product.getProductId()) != null)
+      throw new APIException("Product " + product.getProductName() + " already exists in the Cart");
 
-    Cart cart =
-        cartRepository
-            .findById(cartId)
-            .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+    checkStock(product, quantity);
 
-    Product product =
-        productRepository
-            .findById(productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+    CartItem newCartItem = new CartItem();
 
-    CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
+    newCartItem.setProduct(product);
+    newCartItem.setCart(cart);
+    newCartItem.setQuantity(quantity);
+    newCartItem.setDiscount(product.getDiscount());
+    newCartItem.setProductPrice(product.getPrice());
+
+    cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice() * quantity));
+    cart.getCartItems().add(newCartItem);
+  }
+
+  private static void changeCartItemQuantity(Cart cart, Product product, Integer quantity) {
+    CartItem cartItem = findCartItem(cart, product.getProductId());
 
     if (cartItem == null)
       throw new APIException(
@@ -166,100 +255,49 @@ public class CartServiceImpl implements CartService {
 
     if (newQuantity < 0) throw new APIException("The resulting quantity cannot be negative!");
 
-    if (newQuantity == 0) deleteProductFromCart(cartId, productId);
+    // Checked before anything changes, so a rejected update leaves the cart as it was.
+    if (newQuantity > 0) checkStock(product, quantity);
+
+    if (newQuantity == 0) removeCartItem(cart, cartItem);
     else {
       cartItem.setProductPrice(product.getSpecialPrice());
-      cartItem.setQuantity(cartItem.getQuantity() + quantity);
+      cartItem.setQuantity(newQuantity);
       cartItem.setDiscount(product.getDiscount());
       cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * quantity));
-
-      cartRepository.save(cart);
     }
-
-    if (product.getQuantity() == 0)
-      throw new APIException(product.getProductName() + " is not available");
-
-    if (product.getQuantity() < quantity)
-      throw new APIException(
-          "Please, make an order of the "
-              + product.getProductName()
-              + " less than or equal to the quantity "
-              + product.getQuantity()
-              + ".");
-
-    CartItem updatedItem = cartItemRepository.save(cartItem);
-
-    if (updatedItem.getQuantity() == 0) cartRepository.deleteById(updatedItem.getCartItemId());
-
-    CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-    List<CartItem> cartItems = cart.getCartItems();
-
-    Stream<ProductDTO> productStream =
-        cartItems.stream()
-            .map(
-                item -> {
-                  ProductDTO prod = modelMapper.map(item.getProduct(), ProductDTO.class);
-                  prod.setQuantity(item.getQuantity());
-                  return prod;
-                });
-
-    cartDTO.setProducts(productStream.toList());
-
-    return cartDTO;
   }
 
-  @Override
-  @Transactional
-  public String deleteProductFromCart(Long cartId, Long productId) {
-    Cart cart =
-        cartRepository
-            .findById(cartId)
-            .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-    CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-    if (cartItem == null) throw new ResourceNotFoundException("Product", "productId", productId);
+  private static CartItem findCartItem(Cart cart, Long productId) {
+    return cart.getCartItems().stream()
+        .filter(item -> item.getProduct().getProductId().equals(productId))
+        .findFirst()
+        .orElse(null);
+  }
 
+  private static void removeCartItem(Cart cart, CartItem cartItem) {
     Double price = cartItem.getProductPrice();
     Double discount = cartItem.getDiscount(); // percentage
     Double discountedPrice = price - (price * discount / 100);
     Double amountToSubtract = discountedPrice * cartItem.getQuantity();
 
-    cart.setTotalPrice(cart.getTotalPrice() - amountToSubtract);
-
-    if (cart.getTotalPrice() < 0) {
+    if (cart.getTotalPrice() - amountToSubtract < 0) {
       throw new APIException("Total price cannot be negative.");
     }
 
-    cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
-    cartRepository.save(cart);
-
-    return "Product " + cartItem.getProduct().getProductName() + " removed from the cart!!";
+    cart.setTotalPrice(cart.getTotalPrice() - amountToSubtract);
+    cart.getCartItems().remove(cartItem);
   }
 
-  @Override
-  public void updateProductInCarts(Long cartId, Long productId) {
-    Cart cart =
-        cartRepository
-            .findById(cartId)
-            .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-    Product product =
-        productRepository
-            .findById(productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-    CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-    if (cartItem == null)
-      throw new APIException("Product " + product.getProductName() + " not available in the cart!");
-
-    double cartPrice = cart.getTotalPrice() - (cartItem.getProductPrice() * cartItem.getQuantity());
-
-    cartItem.setProductPrice(product.getSpecialPrice());
-
-    cart.setTotalPrice(cartPrice + (cartItem.getProductPrice() * cartItem.getQuantity()));
+  private static void checkStock(Product product, Integer quantity) {
+    if (product.getQuantity() == 0)
+      throw new APIException(product.getProductName() + " is not available");
 
-    cartItem = cartItemRepository.save(cartItem);
+    if (product.getQuantity() < quantity)
+      throw new APIException(
+          "Please, make an order of the "
+              + product.getProductName()
+              + " less than or equal to the quantity "
+              + product.getQuantity()
+              + ".");
   }
 }
@@ -0,0 +1,28 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import java.util.List;
+
+/**
+ * The persistent state of a cart, detached from any entity. {@code version} is the cart row's
+ * version the state was derived from; it is only written over a row still at that version.
+ */
+public record CartSnapshot(
+    Long cartId, long version, String email, Double totalPrice, List<Line> lines) {
+  public record Line(Long productId, Integer quantity, Double discount, Double productPrice) {}
+
+  public static CartSnapshot of(String email, Cart cart) {
+    List<Line> lines =
+        cart.getCartItems().stream()
+            .map(
+                (CartItem item) ->
+                    new Line(
+                        item.getProduct().getProductId(),
+                        item.getQuantity(),
+                        item.getDiscount(),
+                        item.getProductPrice()))
+            .toList();
+    return new CartSnapshot(cart.getCartId(), cart.getVersion(), email, cart.getTotalPrice(), lines);
+  }
+}
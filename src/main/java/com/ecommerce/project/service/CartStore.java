@@ -0,0 +1,46 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.User;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Where cart state lives between requests. Carts are only read and changed through callbacks, so
+ * an implementation can serialise access per cart and decide when changes reach the database.
+ * Code that works on cart rows directly must {@link #flush} or go through {@link #bulk} first.
+ */
+public interface CartStore {
+  /** Applies {@code reader} to the user's cart, or to null if the user has none. */
+  <T> T read(String email, Function<Cart, T> reader);
+
+  /**
+   * Applies {@code mutation} to the user's cart. A missing cart is created for {@code owner}, or
+   * reported as not found when no owner is given. A mutation that throws must not have changed
+   * the cart.
+   */
+  <T> T update(String email, Supplier<User> owner, Function<Cart, T> mutation);
+
+  /** As {@link #update}, for a cart addressed by id. */
+  <T> T updateById(Long cartId, Function<Cart, T> mutation);
+
+  /** Writes the user's pending changes, if any, in a transaction of their own. */
+  void flush(String email);
+
+  /** Writes every pending change. */
+  void flushAll();
+
+  /**
+   * Forgets the user's cart after its rows were changed directly, again once the current
+   * transaction completes. Throws {@link
+   * org.springframework.dao.OptimisticLockingFailureException} if the cart was edited since its
+   * last {@link #flush}, as those edits are not in the rows the caller changed.
+   */
+  void evict(String email);
+
+  /**
+   * Runs a set-based change over cart rows with no writes pending and no mutations running, and
+   * forgets every cart afterwards.
+   */
+  <T> T bulk(Supplier<T> change);
+}
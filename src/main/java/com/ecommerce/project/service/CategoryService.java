@@ -1,5 +1,6 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.payload.CatalogVersion;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
 
@@ -7,6 +8,11 @@ public interface CategoryService {
   CategoryResponse getAllCategories(
       Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+  CategoryResponse getAllCategoriesByCursor(
+      String cursor, Integer pageSize, String sortBy, String sortOrder);
+
+  CatalogVersion getCategoriesVersion();
+
   CategoryDTO createCategory(CategoryDTO categoryDTO);
 
   CategoryDTO deleteCategory(Long categoryId);
@@ -2,16 +2,20 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CategoryMapper;
 import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CatalogVersion;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
 import com.ecommerce.project.repositories.CategoryRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.util.KeysetCursor;
+import com.ecommerce.project.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,7 +27,13 @@ public class CategoryServiceImpl implements CategoryService{
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductPageCache productPageCache;
 
     @Override
     public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
@@ -39,7 +49,7 @@ public class CategoryServiceImpl implements CategoryService{
             throw new APIException("No category created till now.");
 
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(categoryMapper::toCategoryDTO)
                 .toList();
 
         CategoryResponse categoryResponse = new CategoryResponse();
@@ -52,14 +62,40 @@ public class CategoryServiceImpl implements CategoryService{
         return categoryResponse;
     }
 
+    @Override
+    public CategoryResponse getAllCategoriesByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        KeysetPage<Category> categoryPage = KeysetCursor.fetch(categoryRepository, Specification.unrestricted(),
+                cursor, sortBy, "categoryId", sortOrder, pageSize);
+
+        List<Category> categories = categoryPage.content();
+        if (categories.isEmpty() && (cursor == null || cursor.isEmpty()))
+            throw new APIException("No category created till now.");
+
+        List<CategoryDTO> categoryDTOS = categories.stream()
+                .map(categoryMapper::toCategoryDTO)
+                .toList();
+
+        CategoryResponse categoryResponse = new CategoryResponse();
+        categoryResponse.setContent(categoryDTOS);
+        categoryResponse.setPageSize(pageSize);
+        categoryResponse.setLastPage(categoryPage.isLast());
+        categoryResponse.setNextCursor(categoryPage.nextCursor());
+        return categoryResponse;
+    }
+
+    @Override
+    public CatalogVersion getCategoriesVersion() {
+        return categoryRepository.findCatalogVersion();
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toCategory(categoryDTO);
         Category categoryFromDb = categoryRepository.findByCategoryName(category.getCategoryName());
         if (categoryFromDb != null)
             throw new APIException("Category with the name " + category.getCategoryName() + " already exists !!!");
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toCategoryDTO(savedCategory);
     }
 
     @Override
@@ -68,7 +104,9 @@ public class CategoryServiceImpl implements CategoryService{
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        productSearchIndex.removeCategory(categoryId);
+        productPageCache.invalidateCategory(categoryId, category.getCategoryName());
+        return categoryMapper.toCategoryDTO(category);
     }
 
     @Override
@@ -76,9 +114,13 @@ public class CategoryServiceImpl implements CategoryService{
         Category savedCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        String previousName = savedCategory.getCategoryName();
+        Category category = categoryMapper.toCategory(categoryDTO);
         category.setCategoryId(categoryId);
         savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        productSearchIndex.renameCategory(categoryId, savedCategory.getCategoryName());
+        productPageCache.invalidateCategory(categoryId, previousName);
+        productPageCache.invalidateCategory(categoryId, savedCategory.getCategoryName());
+        return categoryMapper.toCategoryDTO(savedCategory);
     }
 }
@@ -0,0 +1,207 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads and writes carts straight through to the database; nothing is held back, so flushing
+ * and eviction are no-ops. Also the database side of {@link WriteBehindCartStore}.
+ *
+ * <p>Edits are optimistic: an uncontended edit costs no locks, and one that loses a race on the
+ * cart's version is replayed from a fresh read a bounded number of times.
+ */
+@Component
+public class JpaCartStore implements CartStore {
+  @Autowired private CartRepository cartRepository;
+
+  @Autowired private ProductRepository productRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Value("${spring.app.cartStore.maxAttempts:5}")
+  private int maxAttempts;
+
+  @Value("${spring.app.cartStore.retryBackoffMs:10}")
+  private long retryBackoffMs;
+
+  private TransactionTemplate transactionTemplate;
+
+  private TransactionTemplate requiresNew;
+
+  @PostConstruct
+  public void init() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    requiresNew = new TransactionTemplate(transactionManager);
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @Override
+  public <T> T read(String email, Function<Cart, T> reader) {
+    return reader.apply(cartRepository.findCartByEmail(email));
+  }
+
+  @Override
+  public <T> T update(String email, Supplier<User> owner, Function<Cart, T> mutation) {
+    return withRetry(
+        () -> {
+          Cart cart = cartRepository.findCartByEmail(email);
+          if (cart == null) {
+            if (owner == null) throw new ResourceNotFoundException("Cart", "email", email);
+            cart = create(owner.get());
+          }
+          T result = mutation.apply(cart);
+          cartRepository.save(cart);
+          return result;
+        });
+  }
+
+  @Override
+  public <T> T updateById(Long cartId, Function<Cart, T> mutation) {
+    return withRetry(
+        () -> {
+          Cart cart =
+              cartRepository
+                  .findById(cartId)
+                  .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+          T result = mutation.apply(cart);
+          cartRepository.save(cart);
+          return result;
+        });
+  }
+
+  @Override
+  public void flush(String email) {}
+
+  @Override
+  public void flushAll() {}
+
+  @Override
+  public void evict(String email) {}
+
+  @Override
+  public <T> T bulk(Supplier<T> change) {
+    return change.get();
+  }
+
+  /**
+   * Runs one read-modify-write of a cart per transaction, retrying a version conflict after a
+   * short randomised pause. Inside a caller's transaction the conflict is only detected when that
+   * transaction commits, so it is left to the caller.
+   */
+  private <T> T withRetry(Supplier<T> attempt) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) return attempt.get();
+
+    for (int attempts = 1; ; attempts++) {
+      try {
+        return transactionTemplate.execute(status -> attempt.get());
+      } catch (OptimisticLockingFailureException exception) {
+        if (attempts >= maxAttempts) throw exception;
+        try {
+          long window = retryBackoffMs << Math.min(attempts, 6);
+          Thread.sleep(1 + ThreadLocalRandom.current().nextLong(window));
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw exception;
+        }
+      }
+    }
+  }
+
+  Cart find(String email) {
+    return cartRepository.findCartByEmail(email);
+  }
+
+  Cart create(User owner) {
+    Cart cart = new Cart();
+    cart.setTotalPrice(0.0);
+    cart.setUser(owner);
+    return cartRepository.save(cart);
+  }
+
+  Map<Long, Product> findProducts(Collection<Long> productIds) {
+    return productRepository.findAllById(productIds).stream()
+        .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+  }
+
+  String findEmail(Long cartId) {
+    return cartRepository.findEmailByCartId(cartId);
+  }
+
+  /**
+   * Writes the snapshots in one new transaction: lines are matched by product, so the carts end up
+   * holding exactly the snapshot's lines. A cart that was deleted, or changed since the snapshot's
+   * version, is left alone. Returns the new version of every cart written.
+   */
+  Map<Long, Long> saveAll(Collection<CartSnapshot> snapshots) {
+    return requiresNew.execute(
+        status -> {
+          Map<Long, Cart> carts =
+              cartRepository
+                  .findAllWithCartItemsByCartIdIn(
+                      snapshots.stream().map(CartSnapshot::cartId).toList())
+                  .stream()
+                  .collect(Collectors.toMap(Cart::getCartId, Function.identity()));
+          List<Cart> written = new ArrayList<>(snapshots.size());
+          for (CartSnapshot snapshot : snapshots) {
+            Cart cart = carts.get(snapshot.cartId());
+            if (cart == null || cart.getVersion() != snapshot.version()) continue;
+            apply(snapshot, cart);
+            written.add(cart);
+          }
+          // Versions are only bumped by the flush.
+          cartRepository.flush();
+          Map<Long, Long> versions = new HashMap<>();
+          written.forEach(cart -> versions.put(cart.getCartId(), cart.getVersion()));
+          return versions;
+        });
+  }
+
+  private void apply(CartSnapshot snapshot, Cart cart) {
+    Map<Long, CartSnapshot.Line> lines = new HashMap<>();
+    snapshot.lines().forEach(line -> lines.put(line.productId(), line));
+
+    cart.setTotalPrice(snapshot.totalPrice());
+    cart.getCartItems()
+        .removeIf(item -> !lines.containsKey(item.getProduct().getProductId()));
+    for (CartSnapshot.Line line : lines.values()) {
+      CartItem cartItem =
+          cart.getCartItems().stream()
+              .filter(item -> item.getProduct().getProductId().equals(line.productId()))
+              .findFirst()
+              .orElseGet(
+                  () -> {
+                    CartItem newCartItem = new CartItem();
+                    newCartItem.setCart(cart);
+                    newCartItem.setProduct(productRepository.getReferenceById(line.productId()));
+                    cart.getCartItems().add(newCartItem);
+                    return newCartItem;
+                  });
+      cartItem.setQuantity(line.quantity());
+      cartItem.setDiscount(line.discount());
+      cartItem.setProductPrice(line.productPrice());
+    }
+  }
+}
@@ -2,12 +2,12 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.OrderMapper;
 import com.ecommerce.project.model.*;
 import com.ecommerce.project.payload.OrderDTO;
 import com.ecommerce.project.payload.OrderItemDTO;
 import com.ecommerce.project.repositories.*;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -23,8 +23,9 @@ public class OrderServiceImpl implements OrderService {
   @Autowired private OrderRepository orderRepository;
   @Autowired private OrderItemRepository orderItemRepository;
   @Autowired private ProductRepository productRepository;
-  @Autowired private CartService cartService;
-  @Autowired private ModelMapper modelMapper;
+  @Autowired private CartStore cartStore;
+  @Autowired private OrderMapper orderMapper;
+  @Autowired private ProductPageCache productPageCache;
 
   @Override
   @Transactional
@@ -36,6 +37,8 @@ public class OrderServiceImpl implements OrderService {
       String pgPaymentId,
       String pgStatus,
       String pgResponseMessage) {
+    // The order is built from the cart rows, so any edits still held in memory go first.
+    cartStore.flush(emailId);
     Cart cart = cartRepository.findCartByEmail(emailId);
 
     if (cart == null) throw new ResourceNotFoundException("Cart", "email", emailId);
@@ -78,22 +81,24 @@ public class OrderServiceImpl implements OrderService {
     orderItems = orderItemRepository.saveAll(orderItems);
 
     // Update the product stock
-    List<CartItem> itemsCopy = new ArrayList<>(cart.getCartItems());
-
-    for (CartItem item : itemsCopy) {
+    for (CartItem item : cartItems) {
       int quantity = item.getQuantity();
       Product product = item.getProduct();
       product.setQuantity(product.getQuantity() - quantity);
       productRepository.save(product);
-
-      // Remove product from cart safely
-      cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
+      productPageCache.invalidateProduct(product);
     }
 
+    // Every line was ordered, so the cart is emptied here rather than line by line. An edit to the
+    // cached cart since the flush above fails the order rather than being dropped with the cart.
+    cart.getCartItems().clear();
+    cart.setTotalPrice(0.0);
+    cartStore.evict(emailId);
+
     // Send back the order summary
-    OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
+    OrderDTO orderDTO = orderMapper.toOrderDTO(savedOrder);
     orderItems.forEach(
-        item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
+        item -> orderDTO.getOrderItems().add(orderMapper.toOrderItemDTO(item)));
     orderDTO.setAddressId(addressId);
     return orderDTO;
   }
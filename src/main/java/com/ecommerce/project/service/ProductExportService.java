@@ -0,0 +1,9 @@
+package com.ecommerce.project.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.springframework.http.MediaType;
+
+public interface ProductExportService {
+  void exportProducts(MediaType contentType, OutputStream out) throws IOException;
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes the whole catalog as CSV or NDJSON straight from a JDBC cursor. Rows are fetched
+ * {@code fetchSize} at a time and written as they arrive, so memory does not grow with the catalog
+ * and the client sees the first rows immediately. The CSV header uses the import's column names.
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+  private static final Logger logger = LoggerFactory.getLogger(ProductExportServiceImpl.class);
+
+  private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  private static final String[] COLUMNS = {
+    "productId",
+    "productName",
+    "description",
+    "image",
+    "quantity",
+    "price",
+    "discount",
+    "specialPrice",
+    "categoryId",
+    "categoryName"
+  };
+
+  private static final String EXPORT_SQL =
+      "SELECT p.product_id, p.product_name, p.description, p.image, p.quantity, p.price,"
+          + " p.discount, p.special_price, c.category_id, c.category_name"
+          + " FROM products p LEFT JOIN categories c ON c.category_id = p.category_id"
+          + " ORDER BY p.product_id";
+
+  @Autowired private DataSource dataSource;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Value("${spring.app.productExport.fetchSize:1000}")
+  private int fetchSize;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  public void init() {
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.setFetchSize(fetchSize);
+    // PostgreSQL only honours the fetch size, rather than buffering the whole result, with
+    // auto-commit off.
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(true);
+  }
+
+  @Override
+  public void exportProducts(MediaType contentType, OutputStream out) throws IOException {
+    boolean csv = CSV.includes(contentType);
+    if (!csv && !NDJSON.includes(contentType))
+      throw new APIException("Unsupported export format: " + contentType);
+
+    long start = System.nanoTime();
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    RowWriter rowWriter = csv ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+    try {
+      rowWriter.writeHeader();
+      writer.flush();
+      transactionTemplate.executeWithoutResult(
+          status -> jdbcTemplate.query(EXPORT_SQL, rowWriter));
+      rowWriter.finish();
+    } catch (UncheckedIOException exception) {
+      // Usually the client went away; the cursor is already closed by now.
+      throw exception.getCause();
+    }
+
+    logger.info(
+        "Exported {} products as {} in {} ms",
+        rowWriter.rows,
+        csv ? "CSV" : "NDJSON",
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private abstract class RowWriter implements RowCallbackHandler {
+    protected final Writer writer;
+    private long rows;
+
+    RowWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    void writeHeader() throws IOException {}
+
+    abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+    void finish() throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      try {
+        writeRow(rs);
+        // One flush per fetched batch keeps rows moving without a syscall per row.
+        if (++rows % fetchSize == 0) finish();
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    }
+  }
+
+  private final class CsvRowWriter extends RowWriter {
+    CsvRowWriter(Writer writer) {
+      super(writer);
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+      writer.write(String.join(",", COLUMNS));
+      writer.write('\n');
+    }
+
+    @Override
+    void writeRow(ResultSet rs) throws SQLException, IOException {
+      for (int i = 0; i < COLUMNS.length; i++) {
+        if (i > 0) writer.write(',');
+        Object value = rs.getObject(i + 1);
+        if (value != null) writeCsvField(writer, value.toString());
+      }
+      writer.write('\n');
+    }
+  }
+
+  private final class NdjsonRowWriter extends RowWriter {
+    private final JsonGenerator generator;
+
+    NdjsonRowWriter(Writer writer) throws IOException {
+      super(writer);
+      generator = objectMapper.getFactory().createGenerator(writer);
+      // Lines are already separated by the newline; Jackson would add a space between root values.
+      generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    void writeRow(ResultSet rs) throws SQLException, IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < COLUMNS.length; i++) {
+        generator.writeFieldName(COLUMNS[i]);
+        generator.writeObject(rs.getObject(i + 1));
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    void finish() throws IOException {
+      generator.flush();
+    }
+  }
+
+  // Quotes only when needed, the inverse of ProductImportServiceImpl.parseCsvLine.
+  static void writeCsvField(Writer writer, String value) throws IOException {
+    boolean quote =
+        value.indexOf(',') >= 0
+            || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0
+            || value.indexOf('\r') >= 0;
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
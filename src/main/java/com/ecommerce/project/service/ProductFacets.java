@@ -0,0 +1,116 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ServiceBusyException;
+import com.ecommerce.project.payload.CategoryFacet;
+import com.ecommerce.project.payload.PriceBucket;
+import com.ecommerce.project.payload.ProductFacetResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Category counts and price histograms computed in one pass over the search index's documents.
+ * Results are cached per query and index version, so any catalog change makes them unreachable
+ * instead of needing explicit invalidation.
+ */
+@Component
+public class ProductFacets {
+  private static final long INDEX_LOADING_RETRY_SECONDS = 5;
+  private static final int MAX_PRICE_BUCKETS = 1000;
+
+  @Autowired private ProductSearchIndex productSearchIndex;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Value("${spring.app.facetCache.maxSize:1000}")
+  private long cacheMaxSize;
+
+  private Cache<FacetKey, ProductFacetResponse> facets;
+
+  private record FacetKey(String keyword, String category, double priceBucketSize, long version) {}
+
+  @PostConstruct
+  public void init() {
+    facets = Caffeine.newBuilder().maximumSize(cacheMaxSize).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, facets, "productFacets");
+  }
+
+  public ProductFacetResponse getFacets(String keyword, String category, double priceBucketSize) {
+    if (!(priceBucketSize > 0)) throw new APIException("Price bucket size must be positive");
+    if (!productSearchIndex.isReady())
+      throw new ServiceBusyException("Search index is still loading", INDEX_LOADING_RETRY_SECONDS);
+
+    FacetKey key =
+        new FacetKey(
+            keyword == null || keyword.isBlank() ? null : keyword.trim().toLowerCase(Locale.ROOT),
+            category == null || category.isEmpty() ? null : category,
+            priceBucketSize,
+            productSearchIndex.getVersion());
+    return facets.get(key, this::computeFacets);
+  }
+
+  private ProductFacetResponse computeFacets(FacetKey key) {
+    Set<Long> hits =
+        key.keyword() != null ? productSearchIndex.matchingProductIds(key.keyword()) : null;
+
+    Map<Long, CategoryFacet> categories = new HashMap<>();
+    TreeMap<Long, Long> buckets = new TreeMap<>();
+    productSearchIndex.forEachDocument(
+        hits,
+        document -> {
+          if (document.categoryId() != null) {
+            CategoryFacet facet =
+                categories.computeIfAbsent(
+                    document.categoryId(),
+                    categoryId -> new CategoryFacet(categoryId, document.categoryName(), 0));
+            facet.setCount(facet.getCount() + 1);
+          }
+          if (key.category() == null || key.category().equals(document.categoryName())) {
+            long bucket = (long) Math.floor(document.specialPrice() / key.priceBucketSize());
+            // Checked as buckets are added, so a tiny bucket size is turned away before it builds
+            // one bucket per distinct price; the exception also keeps it out of the cache.
+            if (buckets.merge(bucket, 1L, Long::sum) == 1L && buckets.size() > MAX_PRICE_BUCKETS)
+              throw new APIException(
+                  "Price bucket size "
+                      + key.priceBucketSize()
+                      + " makes more than "
+                      + MAX_PRICE_BUCKETS
+                      + " price buckets");
+          }
+        });
+
+    List<CategoryFacet> categoryFacets =
+        categories.values().stream()
+            .sorted(
+                Comparator.comparingLong(CategoryFacet::getCount)
+                    .reversed()
+                    .thenComparing(CategoryFacet::getCategoryId))
+            .toList();
+    List<PriceBucket> priceHistogram =
+        buckets.entrySet().stream()
+            .map(
+                bucket ->
+                    new PriceBucket(
+                        bucket.getKey() * key.priceBucketSize(),
+                        (bucket.getKey() + 1) * key.priceBucketSize(),
+                        bucket.getValue()))
+            .toList();
+    long totalHits = buckets.values().stream().mapToLong(Long::longValue).sum();
+
+    return new ProductFacetResponse(
+        totalHits, categoryFacets, key.priceBucketSize(), priceHistogram);
+  }
+}
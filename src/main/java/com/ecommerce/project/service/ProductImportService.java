@@ -0,0 +1,11 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.ProductImportResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.MediaType;
+
+public interface ProductImportService {
+  ProductImportResponse importProducts(Long categoryId, MediaType contentType, InputStream body)
+      throws IOException;
+}
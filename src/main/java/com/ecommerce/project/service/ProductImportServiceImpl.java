@@ -0,0 +1,332 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportError;
+import com.ecommerce.project.payload.ProductImportResponse;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams a CSV or NDJSON catalog into one category. Rows are parsed and validated one at a time
+ * and written in chunks, each chunk in its own transaction with JDBC batching, so memory stays flat
+ * and a bad row only costs that row. A chunk the database still rejects after one retry is reported
+ * row by row, and the import goes on with the next chunk.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+  private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+  private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final int MAX_REPORTED_ERRORS = 1000;
+  private static final long PROGRESS_LOG_INTERVAL = 10_000;
+
+  @Autowired private ProductRepository productRepository;
+
+  @Autowired private CategoryRepository categoryRepository;
+
+  @Autowired private ProductMapper productMapper;
+
+  @Autowired private ProductSearchIndex productSearchIndex;
+
+  @Autowired private ProductPageCache productPageCache;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private Validator validator;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Value("${spring.app.productImport.chunkSize:1000}")
+  private int chunkSize;
+
+  private TransactionTemplate transactionTemplate;
+
+  private record ImportRow(long lineNumber, Product product) {}
+
+  private record ChunkResult(List<Product> inserted, List<ImportRow> duplicates) {}
+
+  @PostConstruct
+  public void init() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Override
+  public ProductImportResponse importProducts(
+      Long categoryId, MediaType contentType, InputStream body) throws IOException {
+    boolean csv = CSV.includes(contentType);
+    if (!csv && !NDJSON.includes(contentType))
+      throw new APIException("Unsupported import format: " + contentType);
+
+    Category category =
+        categoryRepository
+            .findById(categoryId)
+            .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
+
+    long start = System.nanoTime();
+    ProductImportResponse response = new ProductImportResponse();
+    Set<String> seenNames = new HashSet<>();
+    List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      long lineNumber = 0;
+      Map<String, Integer> columns = null;
+      if (csv) {
+        String header = reader.readLine();
+        lineNumber++;
+        if (header == null) throw new APIException("CSV header row is required");
+        columns = parseHeader(header);
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) continue;
+        long rowLineNumber = lineNumber;
+        // A quoted CSV field may span lines; an odd number of quotes leaves one open.
+        if (csv) {
+          String next;
+          while (hasOpenQuote(line) && (next = reader.readLine()) != null) {
+            lineNumber++;
+            line = line + "\n" + next;
+          }
+        }
+        response.setTotalRows(response.getTotalRows() + 1);
+
+        ProductDTO productDTO;
+        try {
+          productDTO =
+              csv ? parseCsvRow(columns, line) : objectMapper.readValue(line, ProductDTO.class);
+        } catch (IOException | RuntimeException exception) {
+          reject(response, rowLineNumber, null, "Malformed row: " + exception.getMessage());
+          continue;
+        }
+
+        Product product = toProduct(productDTO, category);
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+          reject(
+              response,
+              rowLineNumber,
+              product.getProductName(),
+              violations.stream()
+                  .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                  .collect(Collectors.joining("; ")));
+          continue;
+        }
+        if (!seenNames.add(product.getProductName())) {
+          skip(response, rowLineNumber, product.getProductName(), "Duplicate product name in file");
+          continue;
+        }
+
+        chunk.add(new ImportRow(rowLineNumber, product));
+        if (chunk.size() >= chunkSize) {
+          writeChunk(category, chunk, response, start);
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) writeChunk(category, chunk, response, start);
+    }
+
+    response.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+    logger.info(
+        "Imported {} of {} rows into category {} in {} ms ({} skipped, {} failed)",
+        response.getImported(),
+        response.getTotalRows(),
+        category.getCategoryId(),
+        response.getElapsedMillis(),
+        response.getSkipped(),
+        response.getFailed());
+    return response;
+  }
+
+  private void writeChunk(
+      Category category, List<ImportRow> chunk, ProductImportResponse response, long start) {
+    ChunkResult result;
+    try {
+      result = transactionTemplate.execute(status -> insertChunk(category, chunk));
+    } catch (DataIntegrityViolationException exception) {
+      // Another writer added one of these names after the existence check; the retry skips it.
+      chunk.forEach(row -> row.product().setProductId(null));
+      try {
+        result = transactionTemplate.execute(status -> insertChunk(category, chunk));
+      } catch (DataAccessException retryException) {
+        logger.warn(
+            "Import into category {}: chunk of {} rows rejected twice",
+            category.getCategoryId(),
+            chunk.size(),
+            retryException);
+        String message =
+            "Chunk rejected by the database: "
+                + retryException.getMostSpecificCause().getMessage();
+        for (ImportRow row : chunk)
+          reject(response, row.lineNumber(), row.product().getProductName(), message);
+        return;
+      }
+    }
+
+    for (ImportRow row : result.duplicates())
+      skip(response, row.lineNumber(), row.product().getProductName(), "Product already exists");
+    result.inserted().forEach(productSearchIndex::index);
+    productPageCache.invalidateCategory(category.getCategoryId(), category.getCategoryName());
+
+    long before = response.getImported();
+    response.setImported(before + result.inserted().size());
+    if (before / PROGRESS_LOG_INTERVAL != response.getImported() / PROGRESS_LOG_INTERVAL) {
+      double seconds = Math.max(1e-3, (System.nanoTime() - start) / 1e9);
+      logger.info(
+          "Import into category {}: {} rows written ({} rows/s)",
+          category.getCategoryId(),
+          response.getImported(),
+          (long) (response.getImported() / seconds));
+    }
+  }
+
+  private ChunkResult insertChunk(Category category, List<ImportRow> chunk) {
+    Set<String> existing =
+        productRepository.findProductNamesIn(
+            category.getCategoryId(),
+            chunk.stream().map(row -> row.product().getProductName()).toList());
+
+    List<Product> inserted = new ArrayList<>(chunk.size());
+    List<ImportRow> duplicates = new ArrayList<>();
+    for (ImportRow row : chunk) {
+      if (existing.contains(row.product().getProductName())) duplicates.add(row);
+      else inserted.add(row.product());
+    }
+
+    productRepository.saveAll(inserted);
+    productRepository.flush();
+    // The request-scoped persistence context would otherwise hold every imported row.
+    entityManager.clear();
+    return new ChunkResult(inserted, duplicates);
+  }
+
+  private Product toProduct(ProductDTO productDTO, Category category) {
+    Product product = productMapper.toProduct(productDTO);
+    product.setProductId(null);
+    if (product.getImage() == null || product.getImage().isBlank()) product.setImage("default.png");
+    if (product.getQuantity() == null) product.setQuantity(0);
+    product.setCategory(category);
+    product.setSpecialPrice(
+        product.getPrice() - ((product.getDiscount() * 0.01) * product.getPrice()));
+    return product;
+  }
+
+  private void reject(
+      ProductImportResponse response, long lineNumber, String productName, String message) {
+    response.setFailed(response.getFailed() + 1);
+    report(response, lineNumber, productName, message);
+  }
+
+  private void skip(
+      ProductImportResponse response, long lineNumber, String productName, String message) {
+    response.setSkipped(response.getSkipped() + 1);
+    report(response, lineNumber, productName, message);
+  }
+
+  private void report(
+      ProductImportResponse response, long lineNumber, String productName, String message) {
+    if (response.getErrors().size() < MAX_REPORTED_ERRORS)
+      response.getErrors().add(new ProductImportError(lineNumber, productName, message));
+    else response.setErrorsTruncated(true);
+  }
+
+  private static Map<String, Integer> parseHeader(String header) {
+    List<String> names = parseCsvLine(header);
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < names.size(); i++)
+      columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+    for (String required : List.of("productname", "description", "price"))
+      if (!columns.containsKey(required))
+        throw new APIException("CSV header is missing the " + required + " column");
+    return columns;
+  }
+
+  private static ProductDTO parseCsvRow(Map<String, Integer> columns, String line) {
+    List<String> values = parseCsvLine(line);
+    ProductDTO productDTO = new ProductDTO();
+    productDTO.setProductName(column(columns, values, "productname"));
+    productDTO.setDescription(column(columns, values, "description"));
+    productDTO.setImage(column(columns, values, "image"));
+    String quantity = column(columns, values, "quantity");
+    if (quantity != null) productDTO.setQuantity(Integer.parseInt(quantity));
+    String price = column(columns, values, "price");
+    if (price != null) productDTO.setPrice(Double.parseDouble(price));
+    String discount = column(columns, values, "discount");
+    if (discount != null) productDTO.setDiscount(Double.parseDouble(discount));
+    return productDTO;
+  }
+
+  private static String column(Map<String, Integer> columns, List<String> values, String name) {
+    Integer index = columns.get(name);
+    if (index == null || index >= values.size()) return null;
+    String value = values.get(index).trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  private static boolean hasOpenQuote(String line) {
+    return line.chars().filter(c -> c == '"').count() % 2 == 1;
+  }
+
+  // RFC 4180 fields of one record: commas, double quotes, "" escapes and quoted line breaks.
+  static List<String> parseCsvLine(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append('"');
+          i++;
+        } else if (c == '"') quoted = false;
+        else value.append(c);
+      } else if (c == '"') quoted = true;
+      else if (c == ',') {
+        values.add(value.toString());
+        value.setLength(0);
+      } else value.append(c);
+    }
+    if (quoted) throw new IllegalArgumentException("unterminated quoted field");
+    values.add(value.toString());
+    return values;
+  }
+}
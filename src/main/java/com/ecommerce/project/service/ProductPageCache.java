@@ -0,0 +1,150 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CatalogVersion;
+import com.ecommerce.project.payload.ProductResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of rendered public catalog pages. Writers invalidate only the pages whose
+ * category filter could include the product they touched; pages are also dropped again once the
+ * surrounding transaction completes, so a reader cannot re-cache a page read before the commit.
+ * The {@link CatalogVersion} behind each filter is cached the same way, so conditional requests
+ * for a cached page cost no query.
+ */
+@Component
+public class ProductPageCache {
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Value("${spring.app.catalogCache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${spring.app.catalogCache.maxSize:10000}")
+  private long maxSize;
+
+  @Value("${spring.app.catalogCache.ttlSeconds:600}")
+  private long ttlSeconds;
+
+  // Bumped on every invalidation; a load that overlaps one is not kept.
+  private final AtomicLong generation = new AtomicLong();
+
+  private Cache<PageKey, ProductResponse> pages;
+
+  private Cache<PageKey, CatalogVersion> versions;
+
+  @PostConstruct
+  public void init() {
+    pages =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, pages, "productPages");
+    // Same TTL as the pages: a write that never reaches an invalidation, from another instance
+    // or straight to the database, must not keep answering 304 forever.
+    versions =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, versions, "productPageVersions");
+  }
+
+  /** Cached pages are shared between requests and must not be modified by the caller. */
+  public ProductResponse get(PageKey key, Supplier<ProductResponse> loader) {
+    return load(pages, key, loader);
+  }
+
+  /** Keyed by the filter alone; see {@link PageKey#filter}. */
+  public CatalogVersion getVersion(PageKey key, Supplier<CatalogVersion> loader) {
+    return load(versions, key, loader);
+  }
+
+  private <V> V load(Cache<PageKey, V> cache, PageKey key, Supplier<V> loader) {
+    if (!enabled) return loader.get();
+
+    V value = cache.getIfPresent(key);
+    if (value != null) return value;
+
+    long observed = generation.get();
+    value = loader.get();
+    cache.put(key, value);
+    if (generation.get() != observed) cache.invalidate(key);
+    return value;
+  }
+
+  public void invalidateProduct(Product product) {
+    Category category = product.getCategory();
+    if (category == null) invalidate(key -> true);
+    else invalidateCategory(category.getCategoryId(), category.getCategoryName());
+  }
+
+  /** Drops unfiltered pages and pages filtered by this category's id or name. */
+  public void invalidateCategory(Long categoryId, String categoryName) {
+    invalidate(
+        key ->
+            key.categoryId() != null
+                ? key.categoryId().equals(categoryId)
+                : key.matchesCategoryName(categoryName));
+  }
+
+  private void invalidate(Predicate<PageKey> affected) {
+    evict(affected);
+    if (TransactionSynchronizationManager.isSynchronizationActive())
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              evict(affected);
+            }
+          });
+  }
+
+  private void evict(Predicate<PageKey> affected) {
+    generation.incrementAndGet();
+    pages.asMap().keySet().removeIf(affected);
+    versions.asMap().keySet().removeIf(affected);
+  }
+
+  /**
+   * A page of {@code /public/products} (categoryId null) or {@code
+   * /public/categories/{categoryId}/products}.
+   */
+  public record PageKey(
+      String keyword,
+      String category,
+      Long categoryId,
+      Integer pageNumber,
+      Integer pageSize,
+      String sortBy,
+      String sortOrder,
+      String cursor) {
+
+    public static PageKey filter(String category, Long categoryId) {
+      return new PageKey(null, category, categoryId, null, null, null, null, null);
+    }
+
+    // The category filter is a LIKE pattern; wildcards are treated as matching everything.
+    boolean matchesCategoryName(String categoryName) {
+      if (category == null || category.isEmpty()) return true;
+      if (category.indexOf('%') >= 0 || category.indexOf('_') >= 0) return true;
+      return category.equalsIgnoreCase(categoryName);
+    }
+  }
+}
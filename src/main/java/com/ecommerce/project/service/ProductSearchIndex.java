@@ -0,0 +1,431 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductSearchDocument;
+import com.ecommerce.project.repositories.ProductRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process inverted index over product names and descriptions. Every query token must match,
+ * either exactly or as a prefix of an indexed term, and hits are ranked by field-weighted term
+ * frequency times inverse document frequency. Built from the database once the application is
+ * ready and kept current by the product and category services.
+ */
+@Component
+public class ProductSearchIndex {
+  private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+  private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final float NAME_WEIGHT = 3f;
+  private static final float DESCRIPTION_WEIGHT = 1f;
+  private static final float PREFIX_MATCH_WEIGHT = 0.5f;
+
+  @Autowired private ProductRepository productRepository;
+
+  @Value("${spring.app.search.rebuildBatchSize:5000}")
+  private int rebuildBatchSize;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+  private final Map<Long, IndexedProduct> documents = new HashMap<>();
+  private final AtomicLong version = new AtomicLong();
+  private volatile boolean ready;
+
+  // Non-null while a rebuild runs, guarded by the write lock: products and categories changed
+  // since then, whose rows in a batch read earlier may be stale. A removed category maps to null.
+  private Set<Long> productsChangedDuringRebuild;
+  private Map<Long, String> categoriesChangedDuringRebuild;
+
+  // Best score first; equal scores by product id.
+  private static final Comparator<Hit> RANK =
+      Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::productId);
+
+  /** The best-ranked product ids of a search, and how many products matched in all. */
+  public record SearchHits(List<Long> productIds, int totalHits) {}
+
+  private record Hit(Long productId, float score) {}
+
+  // The indexed terms a query token matches, exactly or as a prefix, and their posting count.
+  private record TokenTerms(
+      String token, SortedMap<String, Map<Long, Float>> terms, long postingCount) {}
+
+  private record WeightedTerm(Map<Long, Float> postings, float weight) {}
+
+  public record IndexedProduct(
+      Long productId,
+      Long categoryId,
+      String categoryName,
+      double specialPrice,
+      Map<String, Float> terms) {}
+
+  /**
+   * Batches are read without holding the lock, so searches and writes go on meanwhile. A product
+   * or category changed while the rebuild runs keeps what its writer indexed, whatever a batch read
+   * earlier says.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.currentTimeMillis();
+    long lastProductId = 0L;
+    int indexed = 0;
+    List<ProductSearchDocument> batch;
+    lock.writeLock().lock();
+    try {
+      productsChangedDuringRebuild = new HashSet<>();
+      categoriesChangedDuringRebuild = new HashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    try {
+      do {
+        batch =
+            productRepository.findSearchDocumentsAfter(
+                lastProductId, PageRequest.of(0, rebuildBatchSize));
+        lock.writeLock().lock();
+        try {
+          batch.forEach(this::upsertRebuilt);
+        } finally {
+          lock.writeLock().unlock();
+        }
+        if (!batch.isEmpty()) lastProductId = batch.get(batch.size() - 1).productId();
+        indexed += batch.size();
+      } while (batch.size() == rebuildBatchSize);
+    } finally {
+      lock.writeLock().lock();
+      try {
+        productsChangedDuringRebuild = null;
+        categoriesChangedDuringRebuild = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    version.incrementAndGet();
+    ready = true;
+    logger.info(
+        "Indexed {} products for search in {} ms", indexed, System.currentTimeMillis() - start);
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  // Incremented on every change; lets callers key derived results (e.g. facets) on index state.
+  public long getVersion() {
+    return version.get();
+  }
+
+  public void index(Product product) {
+    ProductSearchDocument document =
+        new ProductSearchDocument(
+            product.getProductId(),
+            product.getProductName(),
+            product.getDescription(),
+            product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+            product.getCategory() != null ? product.getCategory().getCategoryName() : null,
+            product.getSpecialPrice());
+    lock.writeLock().lock();
+    try {
+      upsert(document);
+      if (productsChangedDuringRebuild != null)
+        productsChangedDuringRebuild.add(document.productId());
+      version.incrementAndGet();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long productId) {
+    lock.writeLock().lock();
+    try {
+      removeDocument(productId);
+      if (productsChangedDuringRebuild != null) productsChangedDuringRebuild.add(productId);
+      version.incrementAndGet();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void renameCategory(Long categoryId, String categoryName) {
+    lock.writeLock().lock();
+    try {
+      documents.replaceAll(
+          (productId, document) ->
+              Objects.equals(document.categoryId(), categoryId)
+                  ? new IndexedProduct(
+                      productId,
+                      categoryId,
+                      categoryName,
+                      document.specialPrice(),
+                      document.terms())
+                  : document);
+      if (categoriesChangedDuringRebuild != null)
+        categoriesChangedDuringRebuild.put(categoryId, categoryName);
+      version.incrementAndGet();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void removeCategory(Long categoryId) {
+    lock.writeLock().lock();
+    try {
+      List<Long> productIds =
+          documents.values().stream()
+              .filter(document -> Objects.equals(document.categoryId(), categoryId))
+              .map(IndexedProduct::productId)
+              .toList();
+      productIds.forEach(this::removeDocument);
+      if (categoriesChangedDuringRebuild != null)
+        categoriesChangedDuringRebuild.put(categoryId, null);
+      version.incrementAndGet();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * The {@code limit} best product ids matching every token of the keyword, best match first.
+   * Only those are kept in order, on a bounded heap, so a page costs the same however many
+   * products match.
+   */
+  public SearchHits search(String keyword, String categoryName, int limit) {
+    PriorityQueue<Hit> best = new PriorityQueue<>(RANK.reversed());
+    int[] totalHits = {0};
+    lock.readLock().lock();
+    try {
+      forEachHit(
+          keyword,
+          categoryName,
+          hit -> {
+            totalHits[0]++;
+            if (best.size() < limit) best.add(hit);
+            else if (limit > 0 && RANK.compare(hit, best.peek()) < 0) {
+              best.poll();
+              best.add(hit);
+            }
+          });
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    List<Hit> ranked = new ArrayList<>(best);
+    ranked.sort(RANK);
+    return new SearchHits(ranked.stream().map(Hit::productId).toList(), totalHits[0]);
+  }
+
+  /** Every product id matching every token of the keyword, in no particular order. */
+  public Set<Long> matchingProductIds(String keyword) {
+    Set<Long> productIds = new HashSet<>();
+    lock.readLock().lock();
+    try {
+      forEachHit(keyword, null, hit -> productIds.add(hit.productId()));
+    } finally {
+      lock.readLock().unlock();
+    }
+    return productIds;
+  }
+
+  // Visits the products matching every query token with their summed scores. The token with the
+  // fewest postings supplies the candidates, straight from its postings when it matches a single
+  // term; the others are looked up per candidate, unless they expand to so many terms that
+  // merging them is cheaper. Runs under the read lock.
+  private void forEachHit(String keyword, String categoryName, Consumer<Hit> action) {
+    List<TokenTerms> tokens = new ArrayList<>();
+    for (String token : new HashSet<>(tokenize(keyword))) {
+      SortedMap<String, Map<Long, Float>> terms =
+          postings.subMap(token, token + Character.MAX_VALUE);
+      if (terms.isEmpty()) return;
+      tokens.add(new TokenTerms(token, terms, terms.values().stream().mapToLong(Map::size).sum()));
+    }
+    if (tokens.isEmpty()) return;
+    tokens.sort(Comparator.comparingLong(TokenTerms::postingCount));
+
+    TokenTerms first = tokens.get(0);
+    boolean singleTerm = first.terms().size() == 1;
+    Map<Long, Float> candidates =
+        singleTerm ? first.terms().values().iterator().next() : match(first);
+    float candidateWeight =
+        singleTerm ? termWeight(first, first.terms().entrySet().iterator().next()) : 1f;
+    List<Function<Long, Float>> otherScores = new ArrayList<>();
+    for (TokenTerms token : tokens.subList(1, tokens.size())) {
+      if ((long) token.terms().size() * candidates.size() <= token.postingCount()) {
+        List<WeightedTerm> terms = weightedTerms(token);
+        otherScores.add(productId -> bestScore(terms, productId));
+      } else otherScores.add(match(token)::get);
+    }
+
+    boolean anyCategory = categoryName == null || categoryName.isEmpty();
+    candidates:
+    for (Map.Entry<Long, Float> candidate : candidates.entrySet()) {
+      Long productId = candidate.getKey();
+      float score = candidate.getValue() * candidateWeight;
+      for (Function<Long, Float> otherScore : otherScores) {
+        Float tokenScore = otherScore.apply(productId);
+        if (tokenScore == null) continue candidates;
+        score += tokenScore;
+      }
+      if (!anyCategory && !categoryName.equals(documents.get(productId).categoryName())) continue;
+      action.accept(new Hit(productId, score));
+    }
+  }
+
+  public IndexedProduct getDocument(Long productId) {
+    lock.readLock().lock();
+    try {
+      return documents.get(productId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<IndexedProduct> getDocuments() {
+    lock.readLock().lock();
+    try {
+      return new ArrayList<>(documents.values());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Visits the given products, or every indexed product when productIds is null, under a single
+   * read lock and without copying the documents.
+   */
+  public void forEachDocument(Collection<Long> productIds, Consumer<IndexedProduct> action) {
+    lock.readLock().lock();
+    try {
+      if (productIds == null) {
+        documents.values().forEach(action);
+        return;
+      }
+      for (Long productId : productIds) {
+        IndexedProduct document = documents.get(productId);
+        if (document != null) action.accept(document);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Best score per product for one query token: exact term, else strongest prefix expansion. Every
+  // expansion is read, however many there are, so a short prefix misses no product; the bounded
+  // heap in search() keeps the ranking cost to the page.
+  private Map<Long, Float> match(TokenTerms token) {
+    Map<Long, Float> matches = new HashMap<>();
+    for (Map.Entry<String, Map<Long, Float>> term : token.terms().entrySet()) {
+      float termWeight = termWeight(token, term);
+      term.getValue()
+          .forEach((productId, weight) -> matches.merge(productId, weight * termWeight, Math::max));
+    }
+    return matches;
+  }
+
+  private List<WeightedTerm> weightedTerms(TokenTerms token) {
+    return token.terms().entrySet().stream()
+        .map(term -> new WeightedTerm(term.getValue(), termWeight(token, term)))
+        .toList();
+  }
+
+  // As match(), for a single product; null if no term of the token is in the product.
+  private static Float bestScore(List<WeightedTerm> terms, Long productId) {
+    Float best = null;
+    for (WeightedTerm term : terms) {
+      Float weight = term.postings().get(productId);
+      if (weight == null) continue;
+      float score = weight * term.weight();
+      if (best == null || score > best) best = score;
+    }
+    return best;
+  }
+
+  // Inverse document frequency, halved for a prefix expansion.
+  private float termWeight(TokenTerms token, Map.Entry<String, Map<Long, Float>> term) {
+    float matchWeight = term.getKey().equals(token.token()) ? 1f : PREFIX_MATCH_WEIGHT;
+    double documentCount = Math.max(1, documents.size());
+    return (float) Math.log(1 + documentCount / term.getValue().size()) * matchWeight;
+  }
+
+  // A rebuilt row loses to any change made while the rebuild ran.
+  private void upsertRebuilt(ProductSearchDocument document) {
+    if (productsChangedDuringRebuild.contains(document.productId())) return;
+    if (categoriesChangedDuringRebuild.containsKey(document.categoryId())) {
+      String categoryName = categoriesChangedDuringRebuild.get(document.categoryId());
+      if (categoryName == null) return;
+      document =
+          new ProductSearchDocument(
+              document.productId(),
+              document.productName(),
+              document.description(),
+              document.categoryId(),
+              categoryName,
+              document.specialPrice());
+    }
+    upsert(document);
+  }
+
+  private void upsert(ProductSearchDocument document) {
+    removeDocument(document.productId());
+
+    Map<String, Float> terms = new HashMap<>();
+    tokenize(document.productName()).forEach(term -> terms.merge(term, NAME_WEIGHT, Float::sum));
+    tokenize(document.description())
+        .forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+
+    terms.forEach(
+        (term, weight) ->
+            postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.productId(), weight));
+    documents.put(
+        document.productId(),
+        new IndexedProduct(
+            document.productId(),
+            document.categoryId(),
+            document.categoryName(),
+            document.specialPrice(),
+            terms));
+  }
+
+  private void removeDocument(Long productId) {
+    IndexedProduct previous = documents.remove(productId);
+    if (previous == null) return;
+    for (String term : previous.terms().keySet()) {
+      Map<Long, Float> termPostings = postings.get(term);
+      if (termPostings == null) continue;
+      termPostings.remove(productId);
+      if (termPostings.isEmpty()) postings.remove(term);
+    }
+  }
+
+  static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) return List.of();
+    return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+        .filter(token -> !token.isEmpty())
+        .toList();
+  }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.payload.CatalogVersion;
 import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductFacetResponse;
 import com.ecommerce.project.payload.ProductResponse;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -11,8 +13,18 @@ public interface ProductService {
 
     ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category);
 
+    ProductResponse getAllProductsByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, String keyword, String category);
+
     ProductResponse searchByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId);
 
+    ProductResponse searchByCategoryByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, Long categoryId);
+
+    CatalogVersion getCatalogVersion(String category);
+
+    CatalogVersion getCategoryCatalogVersion(Long categoryId);
+
+    ProductFacetResponse getProductFacets(String keyword, String category, Double priceBucketSize);
+
     ProductResponse searchProductByKeyword(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword);
 
     ProductDTO updateProduct(Long productId, ProductDTO product);
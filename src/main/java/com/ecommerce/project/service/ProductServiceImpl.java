@@ -2,16 +2,21 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
-import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
-import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CatalogVersion;
 import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductFacetResponse;
 import com.ecommerce.project.payload.ProductResponse;
-import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.CategoryRepository;
 import com.ecommerce.project.repositories.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.service.ProductSearchIndex.SearchHits;
+import com.ecommerce.project.util.KeysetCursor;
+import com.ecommerce.project.util.KeysetPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -23,6 +28,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.io.IOException;
 
 @Service
@@ -31,7 +40,7 @@ public class ProductServiceImpl implements ProductService {
 
   @Autowired private CategoryRepository categoryRepository;
 
-  @Autowired private ModelMapper modelMapper;
+  @Autowired private ProductMapper productMapper;
 
   @Autowired private FileService fileService;
 
@@ -41,9 +50,16 @@ public class ProductServiceImpl implements ProductService {
   @Value("${image.base.url}")
   private String imageBaseUrl;
 
-  @Autowired private CartRepository cartRepository;
   @Autowired private CartService cartService;
 
+  @Autowired private ProductSearchIndex productSearchIndex;
+
+  @Autowired private ProductPageCache productPageCache;
+
+  @Autowired private ProductFacets productFacets;
+
+  @PersistenceContext private EntityManager entityManager;
+
   @Override
   public ProductDTO addProduct(Long categoryId, ProductDTO productDTO) {
     Category category =
@@ -51,18 +67,12 @@ public class ProductServiceImpl implements ProductService {
             .findById(categoryId)
             .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
 
-    boolean isProductNotPresent = true;
-    List<Product> products = category.getProducts();
-
-    for (Product value : products) {
-      if (value.getProductName().equals(productDTO.getProductName())) {
-        isProductNotPresent = false;
-        break;
-      }
-    }
+    boolean isProductNotPresent =
+        !productRepository.existsByCategoryCategoryIdAndProductName(
+            categoryId, productDTO.getProductName());
 
     if (isProductNotPresent) {
-      Product product = modelMapper.map(productDTO, Product.class);
+      Product product = productMapper.toProduct(productDTO);
 
       product.setImage("default.png");
       product.setCategory(category);
@@ -70,7 +80,9 @@ public class ProductServiceImpl implements ProductService {
           product.getPrice() - ((product.getDiscount() * 0.01) * product.getPrice());
       product.setSpecialPrice(specialPrice);
       Product savedProduct = productRepository.save(product);
-      return modelMapper.map(savedProduct, ProductDTO.class);
+      productSearchIndex.index(savedProduct);
+      productPageCache.invalidateProduct(savedProduct);
+      return productMapper.toProductDTO(savedProduct);
     } else {
       throw new APIException("Product already exists!");
     }
@@ -84,12 +96,128 @@ public class ProductServiceImpl implements ProductService {
       String sortOrder,
       String keyword,
       String category) {
+    ProductPageCache.PageKey key =
+        new ProductPageCache.PageKey(
+            keyword, category, null, pageNumber, pageSize, sortBy, sortOrder, null);
+    return productPageCache.get(
+        key, () -> loadAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category));
+  }
+
+  private ProductResponse loadAllProducts(
+      Integer pageNumber,
+      Integer pageSize,
+      String sortBy,
+      String sortOrder,
+      String keyword,
+      String category) {
+    if (keyword != null && !keyword.isEmpty() && productSearchIndex.isReady()) {
+      ProductResponse productResponse = getProductsPage(keyword, category, pageNumber, pageSize);
+      productResponse.getContent().forEach(p -> p.setImage(constructImageUrl(p.getImage())));
+      return productResponse;
+    }
+
     Sort sortByAndOrder =
         sortOrder.equalsIgnoreCase("asc")
             ? Sort.by(sortBy).ascending()
             : Sort.by(sortBy).descending();
 
-    Specification<Product> spec = Specification.where(null);
+    String keywordPattern =
+        keyword != null && !keyword.isEmpty() ? "%" + keyword.toLowerCase() + "%" : null;
+    String categoryFilter = category != null && !category.isEmpty() ? category : null;
+
+    Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+    Page<ProductDTO> productsPage =
+        productRepository.findProductDTOs(keywordPattern, categoryFilter, pageDetails);
+
+    List<ProductDTO> productDTOS = productsPage.getContent();
+    productDTOS.forEach(productDTO -> productDTO.setImage(constructImageUrl(productDTO.getImage())));
+
+    ProductResponse productResponse = new ProductResponse();
+    productResponse.setContent(productDTOS);
+    productResponse.setPageNumber(productsPage.getNumber());
+    productResponse.setPageSize(productsPage.getSize());
+    productResponse.setTotalElements(productsPage.getTotalElements());
+    productResponse.setTotalPages(productsPage.getTotalPages());
+    productResponse.setLastPage(productsPage.isLast());
+    return productResponse;
+  }
+
+  // Keyword pages are versioned with everything the category filter covers, a superset of what the
+  // index can match.
+  @Override
+  public CatalogVersion getCatalogVersion(String category) {
+    String categoryFilter = category != null && !category.isEmpty() ? category : null;
+    return productPageCache.getVersion(
+        ProductPageCache.PageKey.filter(categoryFilter, null),
+        () -> productRepository.findCatalogVersion(categoryFilter));
+  }
+
+  @Override
+  public CatalogVersion getCategoryCatalogVersion(Long categoryId) {
+    return productPageCache.getVersion(
+        ProductPageCache.PageKey.filter(null, categoryId),
+        () -> productRepository.findCatalogVersionByCategoryId(categoryId));
+  }
+
+  @Override
+  public ProductResponse getAllProductsByCursor(
+      String cursor,
+      Integer pageSize,
+      String sortBy,
+      String sortOrder,
+      String keyword,
+      String category) {
+    ProductPageCache.PageKey key =
+        new ProductPageCache.PageKey(
+            keyword, category, null, null, pageSize, sortBy, sortOrder, cursor);
+    return productPageCache.get(
+        key,
+        () -> loadAllProductsByCursor(cursor, pageSize, sortBy, sortOrder, keyword, category));
+  }
+
+  private ProductResponse loadAllProductsByCursor(
+      String cursor,
+      Integer pageSize,
+      String sortBy,
+      String sortOrder,
+      String keyword,
+      String category) {
+    if (keyword != null && !keyword.isEmpty() && productSearchIndex.isReady()) {
+      ProductResponse productResponse =
+          getProductsPageByCursor(keyword, category, cursor, pageSize);
+      productResponse.getContent().forEach(p -> p.setImage(constructImageUrl(p.getImage())));
+      return productResponse;
+    }
+
+    KeysetPage<ProductDTO> productsPage =
+        fetchProductDTOsByCursor(
+            buildProductSpecification(keyword, category), cursor, pageSize, sortBy, sortOrder);
+    productsPage.content().forEach(p -> p.setImage(constructImageUrl(p.getImage())));
+
+    return getCursorResponse(productsPage.content(), pageSize, productsPage.nextCursor());
+  }
+
+  private KeysetPage<ProductDTO> fetchProductDTOsByCursor(
+      Specification<Product> spec,
+      String cursor,
+      Integer pageSize,
+      String sortBy,
+      String sortOrder) {
+    return KeysetCursor.fetch(
+        entityManager,
+        Product.class,
+        ProductDTO.class,
+        ProductRepository.PRODUCT_DTO_FIELDS,
+        spec,
+        cursor,
+        sortBy,
+        "productId",
+        sortOrder,
+        pageSize);
+  }
+
+  Specification<Product> buildProductSpecification(String keyword, String category) {
+    Specification<Product> spec = Specification.unrestricted();
     if (keyword != null && !keyword.isEmpty())
       spec =
           spec.and(
@@ -103,42 +231,105 @@ public class ProductServiceImpl implements ProductService {
           spec.and(
               (root, query, criteriaBuilder) ->
                   criteriaBuilder.like(root.get("category").get("categoryName"), category));
+    return spec;
+  }
 
-    Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-    Page<Product> productsPage = productRepository.findAll(spec, pageDetails);
-    List<Product> products = productsPage.getContent();
-
-    List<ProductDTO> productDTOS =
-        products.stream()
-            .map(
-                product -> {
-                  ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                  productDTO.setImage(constructImageUrl(product.getImage()));
-                  return productDTO;
-                })
-            .toList();
+  // One page of ranked search hits, in rank order. Only the hits up to the page are ranked.
+  private ProductResponse getProductsPage(
+      String keyword, String category, Integer pageNumber, Integer pageSize) {
+    long firstRank = (long) pageNumber * pageSize;
+    SearchHits hits =
+        productSearchIndex.search(keyword, category, rankedHits(firstRank, pageSize));
+    List<Long> productIds = hits.productIds();
+    int fromIndex = (int) Math.min(firstRank, productIds.size());
+    int toIndex = Math.min(fromIndex + pageSize, productIds.size());
+    List<ProductDTO> productDTOS = getProductDTOs(productIds.subList(fromIndex, toIndex));
+
+    int totalPages = (hits.totalHits() + pageSize - 1) / pageSize;
+    ProductResponse productResponse = new ProductResponse();
+    productResponse.setContent(productDTOS);
+    productResponse.setPageNumber(pageNumber);
+    productResponse.setPageSize(pageSize);
+    productResponse.setTotalElements((long) hits.totalHits());
+    productResponse.setTotalPages(totalPages);
+    productResponse.setLastPage(pageNumber >= totalPages - 1);
+    return productResponse;
+  }
+
+  // Ranked hits have no stable sort key, so the cursor holds the last product id and its rank;
+  // the rank is only used when that product is no longer ranked up to the next page.
+  private ProductResponse getProductsPageByCursor(
+      String keyword, String category, String cursor, Integer pageSize) {
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    int rank = -1;
+    if (after != null) {
+      try {
+        rank = Integer.parseInt(after.sortValue());
+      } catch (NumberFormatException exception) {
+        throw new APIException("Invalid cursor: " + cursor);
+      }
+    }
+
+    SearchHits hits =
+        productSearchIndex.search(keyword, category, rankedHits(rank + 1L, pageSize));
+    List<Long> productIds = hits.productIds();
+    int fromIndex = 0;
+    if (after != null) {
+      int position = productIds.indexOf(after.id());
+      fromIndex = Math.min((position >= 0 ? position : rank) + 1, productIds.size());
+    }
+    int toIndex = Math.min(fromIndex + pageSize, productIds.size());
+    List<Long> pageIds = productIds.subList(fromIndex, toIndex);
+
+    String nextCursor =
+        toIndex < hits.totalHits()
+            ? new KeysetCursor(String.valueOf(toIndex - 1), pageIds.get(pageIds.size() - 1))
+                .encode()
+            : null;
+    return getCursorResponse(getProductDTOs(pageIds), pageSize, nextCursor);
+  }
+
+  // Hits to rank for a page starting at the given rank.
+  private static int rankedHits(long fromIndex, int pageSize) {
+    return (int) Math.min(fromIndex + pageSize, Integer.MAX_VALUE);
+  }
+
+  private List<ProductDTO> getProductDTOs(List<Long> pageIds) {
+    Map<Long, ProductDTO> productsById =
+        productRepository.findProductDTOsByIdIn(pageIds).stream()
+            .collect(Collectors.toMap(ProductDTO::getProductId, Function.identity()));
+
+    return pageIds.stream().map(productsById::get).filter(Objects::nonNull).toList();
+  }
 
+  private ProductResponse getCursorResponse(
+      List<ProductDTO> productDTOS, Integer pageSize, String nextCursor) {
     ProductResponse productResponse = new ProductResponse();
     productResponse.setContent(productDTOS);
-    productResponse.setPageNumber(productsPage.getNumber());
-    productResponse.setPageSize(productsPage.getSize());
-    productResponse.setTotalElements(productsPage.getTotalElements());
-    productResponse.setTotalPages(productsPage.getTotalPages());
-    productResponse.setLastPage(productsPage.isLast());
+    productResponse.setPageSize(pageSize);
+    productResponse.setLastPage(nextCursor == null);
+    productResponse.setNextCursor(nextCursor);
     return productResponse;
   }
 
-  private String constructImageUrl(String imageName) {
+  String constructImageUrl(String imageName) {
     return imageBaseUrl.endsWith("/") ? imageBaseUrl + imageName : imageBaseUrl + "/" + imageName;
   }
 
   @Override
   public ProductResponse searchByCategory(
       Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId) {
-    Category category =
-        categoryRepository
-            .findById(categoryId)
-            .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
+    ProductPageCache.PageKey key =
+        new ProductPageCache.PageKey(
+            null, null, categoryId, pageNumber, pageSize, sortBy, sortOrder, null);
+    return productPageCache.get(
+        key, () -> loadByCategory(pageNumber, pageSize, sortBy, sortOrder, categoryId));
+  }
+
+  private ProductResponse loadByCategory(
+      Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId) {
+    if (!categoryRepository.existsById(categoryId))
+      throw new ResourceNotFoundException("Category", "categoryId", categoryId);
 
     Sort sortByAndOrder =
         sortOrder.equalsIgnoreCase("asc")
@@ -146,12 +337,9 @@ public class ProductServiceImpl implements ProductService {
             : Sort.by(sortBy).descending();
 
     Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-    Page<Product> productsPage =
-        productRepository.findByCategoryOrderByPriceAsc(category, pageDetails);
-    List<Product> products = productsPage.getContent();
-
-    List<ProductDTO> productDTOS =
-        products.stream().map(product -> modelMapper.map(product, ProductDTO.class)).toList();
+    Page<ProductDTO> productsPage =
+        productRepository.findProductDTOsByCategoryIdOrderByPriceAsc(categoryId, pageDetails);
+    List<ProductDTO> productDTOS = productsPage.getContent();
 
     ProductResponse productResponse = new ProductResponse();
     productResponse.setContent(productDTOS);
@@ -163,23 +351,58 @@ public class ProductServiceImpl implements ProductService {
     return productResponse;
   }
 
+  @Override
+  public ProductResponse searchByCategoryByCursor(
+      String cursor, Integer pageSize, String sortBy, String sortOrder, Long categoryId) {
+    ProductPageCache.PageKey key =
+        new ProductPageCache.PageKey(
+            null, null, categoryId, null, pageSize, sortBy, sortOrder, cursor);
+    return productPageCache.get(
+        key, () -> loadByCategoryByCursor(cursor, pageSize, sortBy, sortOrder, categoryId));
+  }
+
+  private ProductResponse loadByCategoryByCursor(
+      String cursor, Integer pageSize, String sortBy, String sortOrder, Long categoryId) {
+    Category category =
+        categoryRepository
+            .findById(categoryId)
+            .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
+
+    Specification<Product> spec =
+        (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("category"), category);
+    KeysetPage<ProductDTO> productsPage =
+        fetchProductDTOsByCursor(spec, cursor, pageSize, sortBy, sortOrder);
+
+    return getCursorResponse(productsPage.content(), pageSize, productsPage.nextCursor());
+  }
+
+  @Override
+  public ProductFacetResponse getProductFacets(
+      String keyword, String category, Double priceBucketSize) {
+    return productFacets.getFacets(keyword, category, priceBucketSize);
+  }
+
   @Override
   public ProductResponse searchProductByKeyword(
       Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword) {
+    if (productSearchIndex.isReady()) {
+      ProductResponse productResponse = getProductsPage(keyword, null, pageNumber, pageSize);
+      if (productResponse.getTotalElements() == 0)
+        throw new APIException("No products are found!");
+      return productResponse;
+    }
+
     Sort sortByAndOrder =
         sortOrder.equalsIgnoreCase("asc")
             ? Sort.by(sortBy).ascending()
             : Sort.by(sortBy).descending();
 
     Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-    Page<Product> productsPage =
-        productRepository.findByProductNameLikeIgnoreCase('%' + keyword + '%', pageDetails);
-    List<Product> products = productsPage.getContent();
-
-    if (products.isEmpty()) throw new APIException("No products are found!");
+    Page<ProductDTO> productsPage =
+        productRepository.findProductDTOsByProductNameLike('%' + keyword + '%', pageDetails);
+    List<ProductDTO> productDTOS = productsPage.getContent();
 
-    List<ProductDTO> productDTOS =
-        products.stream().map(product -> modelMapper.map(product, ProductDTO.class)).toList();
+    if (productDTOS.isEmpty()) throw new APIException("No products are found!");
 
     ProductResponse productResponse = new ProductResponse();
     productResponse.setContent(productDTOS);
@@ -198,7 +421,7 @@ public class ProductServiceImpl implements ProductService {
             .findById(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-    Product product = modelMapper.map(productDTO, Product.class);
+    Product product = productMapper.toProduct(productDTO);
 
     productFromDB.setPrice(product.getPrice());
     productFromDB.setDiscount(product.getDiscount());
@@ -208,42 +431,31 @@ public class ProductServiceImpl implements ProductService {
     productFromDB.setSpecialPrice(product.getSpecialPrice());
 
     Product savedProduct = productRepository.save(productFromDB);
+    productSearchIndex.index(savedProduct);
+    productPageCache.invalidateProduct(savedProduct);
 
-    List<Cart> carts = cartRepository.findCartsByProductId(productId);
-
-    List<CartDTO> cartDTOS =
-        carts.stream()
-            .map(
-                cart -> {
-                  CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-                  List<ProductDTO> products =
-                      cart.getCartItems().stream()
-                          .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
-                          .toList();
+    cartService.repriceProductInCarts(productId, savedProduct.getSpecialPrice());
 
-                  cartDTO.setProducts(products);
-                  return cartDTO;
-                })
-            .toList();
-
-    cartDTOS.forEach(cart -> cartService.updateProductInCarts(cart.getCartId(), productId));
-
-    return modelMapper.map(savedProduct, ProductDTO.class);
+    return productMapper.toProductDTO(savedProduct);
   }
 
   @Override
+  @Transactional
   public ProductDTO deleteProduct(Long productId) {
     Product product =
         productRepository
             .findById(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-    List<Cart> carts = cartRepository.findCartsByProductId(productId);
-
-    carts.forEach(cart -> cartService.deleteProductFromCart(cart.getCartId(), productId));
+    // The cart bulk statements clear the persistence context, so the response and the cached
+    // pages to drop are read from the product, and its lazy category, first.
+    ProductDTO productDTO = productMapper.toProductDTO(product);
+    productPageCache.invalidateProduct(product);
 
+    cartService.deleteProductFromCarts(productId);
     productRepository.delete(product);
-    return modelMapper.map(product, ProductDTO.class);
+    productSearchIndex.remove(productId);
+    return productDTO;
   }
 
   @Override
@@ -258,7 +470,8 @@ public class ProductServiceImpl implements ProductService {
     productFromDB.setImage(fileName);
 
     Product updatedProduct = productRepository.save(productFromDB);
+    productPageCache.invalidateProduct(updatedProduct);
 
-    return modelMapper.map(updatedProduct, ProductDTO.class);
+    return productMapper.toProductDTO(updatedProduct);
   }
 }
@@ -0,0 +1,490 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps carts in memory, sharded by user across concurrent maps, and writes them back in batches.
+ * Each cart is changed under its own lock and a change only marks it dirty, so a burst of edits to
+ * one cart costs one write. Dirty carts are written on an interval, before checkout and bulk
+ * changes, and at shutdown; whatever cannot be written then is kept in a local file and replayed
+ * on the next start.
+ *
+ * <p>Single instance only: the cache is per JVM and nothing tells one instance that another wrote
+ * a cart, so behind a load balancer one instance's flush would overwrite the other's edits. The
+ * fallback file must be an absolute path, so it does not move with the working directory.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "spring.app.cartStore.writeBehind", havingValue = "true")
+public class WriteBehindCartStore implements CartStore {
+  private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+  @Autowired private JpaCartStore database;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Value("${spring.app.cartStore.shards:16}")
+  private int shardCount;
+
+  @Value("${spring.app.cartStore.flushBatchSize:500}")
+  private int flushBatchSize;
+
+  @Value("${spring.app.cartStore.idleSeconds:1800}")
+  private long idleSeconds;
+
+  @Value("${spring.app.cartStore.fallbackFile:}")
+  private String fallbackFile;
+
+  private List<Map<String, Entry>> shards;
+
+  private final Map<Long, String> emailsByCartId = new ConcurrentHashMap<>();
+
+  // Mutations and flushes share the read side; bulk changes take the write side.
+  private final ReentrantReadWriteLock bulkLock = new ReentrantReadWriteLock();
+
+  private static final class Entry {
+    private final String email;
+    private final Cart cart;
+    private long edits;
+    private long flushedEdits;
+    private long lastAccess = System.nanoTime();
+    private boolean evicted;
+
+    private Entry(String email, Cart cart) {
+      this.email = email;
+      this.cart = cart;
+    }
+
+    private boolean isDirty() {
+      return edits != flushedEdits;
+    }
+  }
+
+  private record Pending(Entry entry, long edits, CartSnapshot snapshot) {}
+
+  @PostConstruct
+  public void init() {
+    if (fallbackFile.isBlank() || !Path.of(fallbackFile).isAbsolute())
+      throw new IllegalStateException(
+          "spring.app.cartStore.fallbackFile must be an absolute path, was '" + fallbackFile + "'");
+    shards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) shards.add(new ConcurrentHashMap<>());
+    meterRegistry.gauge("cartStore.carts", this, store -> store.size());
+  }
+
+  @Override
+  public <T> T read(String email, Function<Cart, T> reader) {
+    bulkLock.readLock().lock();
+    try {
+      while (true) {
+        Entry entry = entry(email, null);
+        if (entry == null) return reader.apply(null);
+        synchronized (entry) {
+          if (entry.evicted) continue;
+          entry.lastAccess = System.nanoTime();
+          attachProducts(entry.cart);
+          try {
+            return reader.apply(entry.cart);
+          } finally {
+            detachProducts(entry.cart);
+          }
+        }
+      }
+    } finally {
+      bulkLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public <T> T update(String email, Supplier<User> owner, Function<Cart, T> mutation) {
+    bulkLock.readLock().lock();
+    try {
+      while (true) {
+        Entry entry = entry(email, owner);
+        if (entry == null) throw new ResourceNotFoundException("Cart", "email", email);
+        synchronized (entry) {
+          if (entry.evicted) continue;
+          attachProducts(entry.cart);
+          try {
+            T result = mutation.apply(entry.cart);
+            entry.edits++;
+            entry.lastAccess = System.nanoTime();
+            return result;
+          } finally {
+            detachProducts(entry.cart);
+          }
+        }
+      }
+    } finally {
+      bulkLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public <T> T updateById(Long cartId, Function<Cart, T> mutation) {
+    String email = emailsByCartId.get(cartId);
+    if (email == null) email = database.findEmail(cartId);
+    // A cart without an owner cannot be keyed here; it is changed in place.
+    if (email == null) return database.updateById(cartId, mutation);
+    return update(
+        email,
+        null,
+        cart -> {
+          if (!cart.getCartId().equals(cartId))
+            throw new ResourceNotFoundException("Cart", "cartId", cartId);
+          return mutation.apply(cart);
+        });
+  }
+
+  @Override
+  public void flush(String email) {
+    bulkLock.readLock().lock();
+    try {
+      Entry entry = shard(email).get(email);
+      Pending pending = entry != null ? pending(entry) : null;
+      if (pending != null) write(List.of(pending));
+    } finally {
+      bulkLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void flushAll() {
+    bulkLock.readLock().lock();
+    try {
+      List<Pending> batch = new ArrayList<>(flushBatchSize);
+      for (Map<String, Entry> shard : shards) {
+        for (Entry entry : shard.values()) {
+          Pending pending = pending(entry);
+          if (pending == null) continue;
+          batch.add(pending);
+          if (batch.size() >= flushBatchSize) {
+            write(batch);
+            batch.clear();
+          }
+        }
+      }
+      if (!batch.isEmpty()) write(batch);
+    } finally {
+      bulkLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void evict(String email) {
+    Entry entry = shard(email).get(email);
+    if (entry != null) {
+      synchronized (entry) {
+        // Edits since the last flush are not in the rows the caller changed; dropping the entry
+        // would lose them, so the caller's change is turned away instead.
+        if (entry.isDirty())
+          throw new OptimisticLockingFailureException(
+              "Cart " + entry.cart.getCartId() + " was edited while it was being changed");
+        entry.evicted = true;
+      }
+      drop(email, entry);
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive())
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              // A cart loaded and edited meanwhile is left to its flush, which rereads it if the
+              // caller's change committed.
+              dropIfClean(email);
+            }
+          });
+  }
+
+  @Override
+  public <T> T bulk(Supplier<T> change) {
+    bulkLock.writeLock().lock();
+    boolean unlockAfterCompletion = false;
+    try {
+      flushAll();
+      T result = change.get();
+      dropAll();
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        // Mutations stay out until the change commits, or they could load the rows it replaces.
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public void afterCompletion(int status) {
+                dropAll();
+                bulkLock.writeLock().unlock();
+              }
+            });
+        unlockAfterCompletion = true;
+      }
+      return result;
+    } finally {
+      if (!unlockAfterCompletion) bulkLock.writeLock().unlock();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${spring.app.cartStore.flushIntervalMs:5000}")
+  public void flushAndTrim() {
+    try {
+      flushAll();
+    } catch (RuntimeException exception) {
+      logger.warn("Cart flush failed; dirty carts stay queued", exception);
+    }
+
+    // Abandoned carts are already in the database; only their memory is reclaimed.
+    long idleBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleSeconds);
+    for (Map<String, Entry> shard : shards) {
+      for (Entry entry : shard.values()) {
+        synchronized (entry) {
+          if (entry.isDirty() || entry.lastAccess - idleBefore > 0) continue;
+          entry.evicted = true;
+        }
+        shard.remove(entry.email, entry);
+        emailsByCartId.remove(entry.cart.getCartId(), entry.email);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    try {
+      flushAll();
+    } catch (RuntimeException exception) {
+      logger.warn("Final cart flush failed", exception);
+    }
+
+    List<CartSnapshot> unwritten = new ArrayList<>();
+    for (Map<String, Entry> shard : shards)
+      for (Entry entry : shard.values()) {
+        Pending pending = pending(entry);
+        if (pending != null) unwritten.add(pending.snapshot());
+      }
+    if (unwritten.isEmpty()) return;
+
+    try (BufferedWriter writer =
+        Files.newBufferedWriter(Path.of(fallbackFile), StandardCharsets.UTF_8)) {
+      for (CartSnapshot snapshot : unwritten) {
+        writer.write(objectMapper.writeValueAsString(snapshot));
+        writer.newLine();
+      }
+      logger.warn("Kept {} unwritten carts in {}", unwritten.size(), fallbackFile);
+    } catch (IOException exception) {
+      logger.error("Lost {} unwritten carts: {}", unwritten.size(), unwritten, exception);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void replayFallback() throws IOException {
+    Path path = Path.of(fallbackFile);
+    if (!Files.exists(path)) return;
+
+    int replayed = 0;
+    int stale = 0;
+    List<String> failed = new ArrayList<>();
+    for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+      if (line.isBlank()) continue;
+      try {
+        // Carts changed since shutdown, e.g. ordered or emptied, keep their current rows.
+        if (database.saveAll(List.of(objectMapper.readValue(line, CartSnapshot.class))).isEmpty())
+          stale++;
+        else replayed++;
+      } catch (IOException | RuntimeException exception) {
+        logger.error("Could not replay cart {}", line, exception);
+        failed.add(line);
+      }
+    }
+    logger.info(
+        "Replayed {} carts from {}, skipped {} changed since", replayed, fallbackFile, stale);
+
+    if (failed.isEmpty()) {
+      Files.delete(path);
+      return;
+    }
+    // Only the carts that could not be replayed stay, for the next start.
+    Path remaining = path.resolveSibling(path.getFileName() + ".tmp");
+    Files.write(remaining, failed, StandardCharsets.UTF_8);
+    Files.move(remaining, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    logger.warn("Kept {} carts that could not be replayed in {}", failed.size(), fallbackFile);
+  }
+
+  int size() {
+    return shards.stream().mapToInt(Map::size).sum();
+  }
+
+  private Map<String, Entry> shard(String email) {
+    return shards.get(Math.floorMod(email.hashCode(), shards.size()));
+  }
+
+  // Loads outside any lock; when two requests race, the first one cached wins.
+  private Entry entry(String email, Supplier<User> owner) {
+    Map<String, Entry> shard = shard(email);
+    Entry entry = shard.get(email);
+    if (entry != null) return entry;
+
+    Cart cart = database.find(email);
+    if (cart == null) {
+      if (owner == null) return null;
+      cart = database.create(owner.get());
+    }
+    Entry loaded = new Entry(email, copyOf(cart));
+    Entry existing = shard.putIfAbsent(email, loaded);
+    if (existing != null) return existing;
+    emailsByCartId.put(cart.getCartId(), email);
+    return loaded;
+  }
+
+  private Pending pending(Entry entry) {
+    synchronized (entry) {
+      if (entry.evicted || !entry.isDirty()) return null;
+      return new Pending(entry, entry.edits, CartSnapshot.of(entry.email, entry.cart));
+    }
+  }
+
+  private void write(List<Pending> batch) {
+    try {
+      Map<Long, Long> versions = database.saveAll(batch.stream().map(Pending::snapshot).toList());
+      batch.forEach(pending -> markWritten(pending, versions));
+    } catch (RuntimeException batchFailure) {
+      if (batch.size() == 1 && !(batchFailure instanceof DataIntegrityViolationException))
+        throw batchFailure;
+      // Find the carts that cannot be written and drop them, rather than retry them forever.
+      for (Pending pending : batch) {
+        try {
+          markWritten(pending, database.saveAll(List.of(pending.snapshot())));
+        } catch (DataIntegrityViolationException exception) {
+          logger.error("Dropping cart that cannot be written: {}", pending.snapshot(), exception);
+          drop(pending.entry().email);
+        }
+      }
+    }
+  }
+
+  private void markWritten(Pending pending, Map<Long, Long> versions) {
+    Entry entry = pending.entry();
+    Long version = versions.get(pending.snapshot().cartId());
+    if (version == null) {
+      // The row changed under the cache; the database wins and the cart is read again on next use.
+      logger.warn(
+          "Cart {} changed since it was cached; discarding the cached copy",
+          pending.snapshot().cartId());
+      drop(entry.email, entry);
+      return;
+    }
+    synchronized (entry) {
+      entry.flushedEdits = Math.max(entry.flushedEdits, pending.edits());
+      entry.cart.setVersion(version);
+    }
+  }
+
+  private void drop(String email) {
+    Entry entry = shard(email).remove(email);
+    if (entry == null) return;
+    synchronized (entry) {
+      entry.evicted = true;
+    }
+    emailsByCartId.remove(entry.cart.getCartId(), email);
+  }
+
+  private void dropIfClean(String email) {
+    Entry entry = shard(email).get(email);
+    if (entry == null) return;
+    synchronized (entry) {
+      if (entry.isDirty()) return;
+      entry.evicted = true;
+    }
+    drop(email, entry);
+  }
+
+  // Drops this particular entry only, not one loaded since in its place.
+  private void drop(String email, Entry entry) {
+    synchronized (entry) {
+      entry.evicted = true;
+    }
+    shard(email).remove(email, entry);
+    emailsByCartId.remove(entry.cart.getCartId(), email);
+  }
+
+  private void dropAll() {
+    for (Map<String, Entry> shard : shards) shard.keySet().forEach(this::drop);
+  }
+
+  // Products change independently of carts, so they are loaded for each use rather than cached.
+  private void attachProducts(Cart cart) {
+    if (cart.getCartItems().isEmpty()) return;
+    Map<Long, Product> products =
+        database.findProducts(
+            cart.getCartItems().stream().map(item -> item.getProduct().getProductId()).toList());
+    for (CartItem item : cart.getCartItems()) {
+      Product product = products.get(item.getProduct().getProductId());
+      if (product != null) item.setProduct(product);
+    }
+  }
+
+  private static void detachProducts(Cart cart) {
+    for (CartItem item : cart.getCartItems())
+      item.setProduct(productReference(item.getProduct().getProductId()));
+  }
+
+  private static Product productReference(Long productId) {
+    Product product = new Product();
+    product.setProductId(productId);
+    return product;
+  }
+
+  // Cached carts must not stay attached to the request's persistence context, and hold only the
+  // ids of their products.
+  private static Cart copyOf(Cart cart) {
+    Cart copy = new Cart();
+    copy.setCartId(cart.getCartId());
+    copy.setTotalPrice(cart.getTotalPrice());
+    copy.setVersion(cart.getVersion());
+    for (CartItem item : cart.getCartItems()) {
+      CartItem line = new CartItem();
+      line.setCartItemId(item.getCartItemId());
+      line.setCart(copy);
+      line.setProduct(productReference(item.getProduct().getProductId()));
+      line.setQuantity(item.getQuantity());
+      line.setDiscount(item.getDiscount());
+      line.setProductPrice(item.getProductPrice());
+      copy.getCartItems().add(line);
+    }
+    return copy;
+  }
+}
@@ -2,41 +2,56 @@ package com.ecommerce.project.util;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
 public class AuthUtil {
   @Autowired private UserRepository userRepository;
 
+  @Autowired private CurrentUserContext currentUserContext;
+
   public String loggedInEmail() {
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    User user =
-        userRepository
-            .findByUserName(authentication.getName())
-            .orElseThrow(
-                () ->
-                    new UsernameNotFoundException(
-                        "User not found with username: " + authentication.getName()));
-    return user.getEmail();
+    UserDetailsImpl principal = loggedInPrincipal();
+    return principal != null ? principal.getEmail() : loggedInUser().getEmail();
   }
 
   public Long loggedInUserId() {
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    User user =
-        userRepository
-            .findByUserName(authentication.getName())
-            .orElseThrow(
-                () ->
-                    new UsernameNotFoundException(
-                        "User not found with username: " + authentication.getName()));
-    return user.getUserId();
+    UserDetailsImpl principal = loggedInPrincipal();
+    return principal != null ? principal.getId() : loggedInUser().getUserId();
+  }
+
+  // Reference to the logged-in user for associations; does not hit the database.
+  public User loggedInUserReference() {
+    return userRepository.getReferenceById(loggedInUserId());
   }
 
   public User loggedInUser() {
+    if (RequestContextHolder.getRequestAttributes() == null) return findLoggedInUser();
+
+    User user = currentUserContext.getUser();
+    if (user == null) {
+      user = findLoggedInUser();
+      currentUserContext.setUser(user);
+    }
+    return user;
+  }
+
+  private UserDetailsImpl loggedInPrincipal() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null
+        && authentication.getPrincipal() instanceof UserDetailsImpl userDetails
+        && userDetails.getId() != null
+        && userDetails.getEmail() != null) return userDetails;
+    return null;
+  }
+
+  private User findLoggedInUser() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     return userRepository
         .findByUserName(authentication.getName())
@@ -0,0 +1,56 @@
+package com.ecommerce.project.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Thread-safe Bloom filter over strings; never yields false negatives.
+public class BloomFilter {
+  private final AtomicLongArray bits;
+  private final long numBits;
+  private final int numHashFunctions;
+
+  public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    int insertions = Math.max(1, expectedInsertions);
+    long optimalBits =
+        (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+    this.bits = new AtomicLongArray(words);
+    this.numBits = words * 64L;
+    this.numHashFunctions =
+        Math.max(1, (int) Math.round((double) numBits / insertions * Math.log(2)));
+  }
+
+  public void put(String value) {
+    long hash1 = fnv1a(value);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < numHashFunctions; i++) {
+      long index = Math.floorMod(hash1 + i * hash2, numBits);
+      bits.getAndAccumulate((int) (index >>> 6), 1L << index, (word, mask) -> word | mask);
+    }
+  }
+
+  public boolean mightContain(String value) {
+    long hash1 = fnv1a(value);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < numHashFunctions; i++) {
+      long index = Math.floorMod(hash1 + i * hash2, numBits);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) return false;
+    }
+    return true;
+  }
+
+  private static long fnv1a(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private static long mix(long hash) {
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return hash ^ (hash >>> 31);
+  }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.model.User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+@Component
+@RequestScope
+public class CurrentUserContext {
+  private User user;
+
+  public User getUser() {
+    return user;
+  }
+
+  public void setUser(User user) {
+    this.user = user;
+  }
+}
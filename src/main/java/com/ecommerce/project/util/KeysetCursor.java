@@ -0,0 +1,201 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.exceptions.APIException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+/**
+ * Opaque cursor for keyset ("seek") pagination: the sort key and id of the last row served. The
+ * next page is read with {@code (sortKey, id) > (lastSortKey, lastId)} instead of an OFFSET, and
+ * without a count query.
+ */
+public record KeysetCursor(String sortValue, Long id) {
+  private static final char SEPARATOR = '\u0000';
+  private static final char NULL_MARKER = '\u0001';
+
+  public String encode() {
+    String value = (sortValue == null ? String.valueOf(NULL_MARKER) : sortValue) + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // An empty cursor requests the first page.
+  public static KeysetCursor decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) return null;
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = value.lastIndexOf(SEPARATOR);
+      String sortValue = value.substring(0, separator);
+      return new KeysetCursor(
+          sortValue.equals(String.valueOf(NULL_MARKER)) ? null : sortValue,
+          Long.parseLong(value.substring(separator + 1)));
+    } catch (RuntimeException exception) {
+      throw new APIException("Invalid cursor: " + cursor);
+    }
+  }
+
+  public static <T> KeysetPage<T> fetch(
+      JpaSpecificationExecutor<T> repository,
+      Specification<T> spec,
+      String cursor,
+      String sortBy,
+      String idField,
+      String sortOrder,
+      int pageSize) {
+    Specification<T> pageSpec = pageSpecification(spec, cursor, sortBy, idField, sortOrder);
+    List<T> rows = repository.findBy(pageSpec, query -> query.limit(pageSize + 1).all());
+    return page(rows, sortBy, idField, pageSize);
+  }
+
+  /**
+   * As {@link #fetch(JpaSpecificationExecutor, Specification, String, String, String, String,
+   * int)}, but each row is built straight from {@code fields} through a {@code resultType}
+   * constructor, without hydrating entities. The sort key and id must be among the fields, under
+   * the same property names on {@code resultType}.
+   */
+  public static <T, R> KeysetPage<R> fetch(
+      EntityManager entityManager,
+      Class<T> entityType,
+      Class<R> resultType,
+      List<String> fields,
+      Specification<T> spec,
+      String cursor,
+      String sortBy,
+      String idField,
+      String sortOrder,
+      int pageSize) {
+    if (!fields.contains(sortBy))
+      throw new APIException("Cursor pagination cannot sort by " + sortBy);
+
+    Specification<T> pageSpec = pageSpecification(spec, cursor, sortBy, idField, sortOrder);
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<R> query = criteriaBuilder.createQuery(resultType);
+    Root<T> root = query.from(entityType);
+    query.select(
+        criteriaBuilder.construct(
+            resultType, fields.stream().map(root::get).toArray(Selection<?>[]::new)));
+    Predicate predicate = pageSpec.toPredicate(root, query, criteriaBuilder);
+    if (predicate != null) query.where(predicate);
+
+    List<R> rows = entityManager.createQuery(query).setMaxResults(pageSize + 1).getResultList();
+    return page(rows, sortBy, idField, pageSize);
+  }
+
+  private static <T> Specification<T> pageSpecification(
+      Specification<T> spec, String cursor, String sortBy, String idField, String sortOrder) {
+    if (sortBy.contains("."))
+      throw new APIException("Cursor pagination only supports sorting by a direct field");
+
+    boolean ascending = sortOrder.equalsIgnoreCase("asc");
+    KeysetCursor after = decode(cursor);
+    Specification<T> pageSpec = spec.and(orderBy(sortBy, idField, ascending));
+    if (after != null) pageSpec = pageSpec.and(seek(after, sortBy, idField, ascending));
+    return pageSpec;
+  }
+
+  // The first pageSize rows, and a cursor after the last of them if one more row was read.
+  private static <T> KeysetPage<T> page(List<T> rows, String sortBy, String idField, int pageSize) {
+    if (rows.size() <= pageSize) return new KeysetPage<>(rows, null);
+
+    List<T> content = rows.subList(0, pageSize);
+    BeanWrapperImpl last = new BeanWrapperImpl(content.get(pageSize - 1));
+    Object lastSortValue = last.getPropertyValue(sortBy);
+    KeysetCursor next =
+        new KeysetCursor(
+            lastSortValue != null ? lastSortValue.toString() : null,
+            (Long) last.getPropertyValue(idField));
+    return new KeysetPage<>(content, next.encode());
+  }
+
+  // A sort key that can hold NULL; primitives and non-optional attributes never do.
+  private static boolean isNullable(Root<?> root, String attribute) {
+    return !(root.getModel().getAttribute(attribute) instanceof SingularAttribute<?, ?> singular)
+        || (singular.isOptional() && !singular.getJavaType().isPrimitive());
+  }
+
+  // (sortBy, idField) order with NULL sort keys placed as seek() expects. Databases disagree on
+  // where NULLs sort by default, and a Sort cannot say it through the Criteria API, so the NULL
+  // check is ordered on first. Keys that cannot be NULL keep a plain order an index can serve.
+  private static <T> Specification<T> orderBy(String sortBy, String idField, boolean ascending) {
+    return (root, query, criteriaBuilder) -> {
+      List<Expression<?>> keys = new ArrayList<>();
+      if (!sortBy.equals(idField)) {
+        Path<?> sortPath = root.get(sortBy);
+        if (isNullable(root, sortBy))
+          keys.add(
+              criteriaBuilder
+                  .<Integer>selectCase()
+                  .when(criteriaBuilder.isNull(sortPath), 1)
+                  .otherwise(0));
+        keys.add(sortPath);
+      }
+      keys.add(root.get(idField));
+      query.orderBy(
+          keys.stream()
+              .map(key -> ascending ? criteriaBuilder.asc(key) : criteriaBuilder.desc(key))
+              .toList());
+      return null;
+    };
+  }
+
+  // Rows strictly after the cursor in (sortBy, idField) order; NULL sort keys sort last on ASC and
+  // first on DESC, as in PostgreSQL. Without NULLs the seek is sortBy >= v AND (sortBy > v OR
+  // id > x), whose leading range an index on (sortBy, idField) can start from.
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> Specification<T> seek(
+      KeysetCursor after, String sortBy, String idField, boolean ascending) {
+    return (root, query, criteriaBuilder) -> {
+      Path<Long> idPath = root.get(idField);
+      Predicate idAfter =
+          ascending
+              ? criteriaBuilder.greaterThan(idPath, after.id())
+              : criteriaBuilder.lessThan(idPath, after.id());
+      if (sortBy.equals(idField)) return idAfter;
+
+      Path<Comparable> sortPath = root.get(sortBy);
+      if (after.sortValue() == null)
+        return ascending
+            ? criteriaBuilder.and(criteriaBuilder.isNull(sortPath), idAfter)
+            : criteriaBuilder.or(
+                criteriaBuilder.and(criteriaBuilder.isNull(sortPath), idAfter),
+                criteriaBuilder.isNotNull(sortPath));
+
+      Comparable value =
+          (Comparable)
+              DefaultConversionService.getSharedInstance()
+                  .convert(after.sortValue(), sortPath.getJavaType());
+      Predicate sortAfter =
+          ascending
+              ? criteriaBuilder.greaterThan(sortPath, value)
+              : criteriaBuilder.lessThan(sortPath, value);
+      if (!isNullable(root, sortBy)) {
+        Predicate sortFrom =
+            ascending
+                ? criteriaBuilder.greaterThanOrEqualTo(sortPath, value)
+                : criteriaBuilder.lessThanOrEqualTo(sortPath, value);
+        return criteriaBuilder.and(sortFrom, criteriaBuilder.or(sortAfter, idAfter));
+      }
+
+      Predicate tie = criteriaBuilder.and(criteriaBuilder.equal(sortPath, value), idAfter);
+      return ascending
+          ? criteriaBuilder.or(sortAfter, tie, criteriaBuilder.isNull(sortPath))
+          : criteriaBuilder.or(sortAfter, tie);
+    };
+  }
+}
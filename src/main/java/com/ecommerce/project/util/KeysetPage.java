@@ -0,0 +1,9 @@
+package com.ecommerce.project.util;
+
+import java.util.List;
+
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+  public boolean isLast() {
+    return nextCursor == null;
+  }
+}
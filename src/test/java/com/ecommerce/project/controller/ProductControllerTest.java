@@ -0,0 +1,172 @@
+package com.ecommerce.project.controller;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CatalogVersion;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.ProductExportService;
+import com.ecommerce.project.service.ProductPageCache;
+import com.ecommerce.project.service.ProductSearchIndex;
+import com.ecommerce.project.service.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Conditional requests against the product listing, through the real service and page cache with
+ * only the repository mocked, and the streamed catalog export.
+ */
+class ProductControllerTest {
+  private static final Instant UPDATED_AT = Instant.parse("2026-01-01T00:00:00Z");
+
+  private static final long EXPORT_TIMEOUT_MS = 3_600_000;
+
+  private ProductRepository productRepository;
+  private ProductExportService productExportService;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = mock(ProductRepository.class);
+    when(productRepository.findCatalogVersion(isNull()))
+        .thenReturn(new CatalogVersion(1L, UPDATED_AT));
+    when(productRepository.findProductDTOs(isNull(), isNull(), any(Pageable.class)))
+        .thenReturn(
+            new PageImpl<>(List.of(new ProductDTO(1L, "Phone", "phone.png", "", 5, 100, 0, 100))));
+
+    ProductPageCache productPageCache = new ProductPageCache();
+    ReflectionTestUtils.setField(productPageCache, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(productPageCache, "enabled", true);
+    ReflectionTestUtils.setField(productPageCache, "maxSize", 100L);
+    ReflectionTestUtils.setField(productPageCache, "ttlSeconds", 600L);
+    productPageCache.init();
+
+    ProductServiceImpl productService = new ProductServiceImpl();
+    ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productService, "productMapper", new ProductMapperImpl());
+    ReflectionTestUtils.setField(productService, "productPageCache", productPageCache);
+    ReflectionTestUtils.setField(
+        productService, "productSearchIndex", mock(ProductSearchIndex.class));
+    ReflectionTestUtils.setField(productService, "cartService", mock(CartService.class));
+    ReflectionTestUtils.setField(productService, "imageBaseUrl", "http://localhost/images");
+
+    productExportService = mock(ProductExportService.class);
+
+    ProductController productController = new ProductController();
+    productController.productService = productService;
+    productController.productExportService = productExportService;
+    productController.exportTimeoutMs = EXPORT_TIMEOUT_MS;
+    mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+  }
+
+  @Test
+  void matchingETagIsAnsweredWithNotModifiedAndNoBody() throws Exception {
+    String eTag =
+        mockMvc
+            .perform(get("/api/public/products"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertThat(eTag).isEqualTo(new CatalogVersion(1L, UPDATED_AT).eTag());
+
+    mockMvc
+        .perform(get("/api/public/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().bytes(new byte[0]));
+    // The 304 was answered from the cached version, without a query or a page load.
+    verify(productRepository).findCatalogVersion(isNull());
+    verify(productRepository).findProductDTOs(isNull(), isNull(), any(Pageable.class));
+  }
+
+  @Test
+  void writeChangesTheETag() throws Exception {
+    String eTag =
+        mockMvc
+            .perform(get("/api/public/products"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    Product product = new Product();
+    product.setProductId(1L);
+    product.setProductName("Phone");
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    when(productRepository.save(product)).thenReturn(product);
+    when(productRepository.findCatalogVersion(isNull()))
+        .thenReturn(new CatalogVersion(1L, UPDATED_AT.plusMillis(1)));
+    mockMvc
+        .perform(
+            put("/api/admin/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productName\":\"Phone v2\",\"quantity\":5,\"price\":90}"))
+        .andExpect(status().isOk());
+
+    String newETag =
+        mockMvc
+            .perform(get("/api/public/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertThat(newETag).isNotEqualTo(eTag);
+  }
+
+  @Test
+  void exportStreamsUnderItsOwnAsyncTimeout() throws Exception {
+    doAnswer(
+            invocation -> {
+              invocation.<OutputStream>getArgument(1).write("{\"productId\":1}\n".getBytes(UTF_8));
+              return null;
+            })
+        .when(productExportService)
+        .exportProducts(any(MediaType.class), any(OutputStream.class));
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/admin/products/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(EXPORT_TIMEOUT_MS);
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(
+            header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("products.ndjson")))
+        .andExpect(content().string("{\"productId\":1}\n"));
+  }
+}
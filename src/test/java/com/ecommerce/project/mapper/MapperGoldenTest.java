@@ -0,0 +1,185 @@
+package com.ecommerce.project.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.AddressDTO;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The generated mappers must render the same JSON as the ModelMapper calls they replaced, including
+ * the per-service post-processing (cart line quantities, order items, address id).
+ */
+class MapperGoldenTest {
+  private final ModelMapper modelMapper = new ModelMapper();
+  private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+  private final ProductMapper productMapper = new ProductMapperImpl();
+  private final CartMapperImpl cartMapper = new CartMapperImpl();
+  private final OrderMapperImpl orderMapper = new OrderMapperImpl();
+  private final AddressMapper addressMapper = new AddressMapperImpl();
+  private final CategoryMapper categoryMapper = new CategoryMapperImpl();
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(cartMapper, "productMapper", productMapper);
+    ReflectionTestUtils.setField(orderMapper, "productMapper", productMapper);
+  }
+
+  @Test
+  void product() throws Exception {
+    for (Product product : List.of(product(1L), new Product())) {
+      assertSameJson(
+          modelMapper.map(product, ProductDTO.class), productMapper.toProductDTO(product));
+    }
+
+    ProductDTO productDTO = productMapper.toProductDTO(product(2L));
+    assertSameJson(
+        modelMapper.map(productDTO, Product.class), productMapper.toProduct(productDTO));
+  }
+
+  @Test
+  void cart() throws Exception {
+    Cart cart = new Cart();
+    cart.setCartId(7L);
+    cart.setTotalPrice(2700.0);
+    for (long id = 1; id <= 3; id++) {
+      CartItem cartItem = new CartItem();
+      cartItem.setCartItemId(id);
+      cartItem.setCart(cart);
+      cartItem.setProduct(product(id));
+      cartItem.setQuantity((int) id);
+      cartItem.setDiscount(10.0);
+      cartItem.setProductPrice(900.0);
+      cart.getCartItems().add(cartItem);
+    }
+
+    CartDTO legacy = modelMapper.map(cart, CartDTO.class);
+    legacy.setProducts(
+        cart.getCartItems().stream()
+            .map(
+                item -> {
+                  ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+                  productDTO.setQuantity(item.getQuantity());
+                  return productDTO;
+                })
+            .toList());
+
+    assertSameJson(legacy, cartMapper.toCartDTO(cart));
+
+    Cart emptyCart = new Cart();
+    emptyCart.setCartId(8L);
+    emptyCart.setTotalPrice(0.0);
+    assertSameJson(modelMapper.map(emptyCart, CartDTO.class), cartMapper.toCartDTO(emptyCart));
+  }
+
+  @Test
+  void order() throws Exception {
+    Address address = sampleAddress();
+    Payment payment = new Payment("card", "pg-1", "succeeded", "stripe", "ok");
+    payment.setPaymentId(5L);
+
+    Order order = new Order();
+    order.setOrderId(11L);
+    order.setEmail("user1@example.com");
+    order.setOrderDate(LocalDate.of(2024, 5, 1));
+    order.setTotalAmount(2700.0);
+    order.setOrderStatus("Order Accepted !");
+    order.setPayment(payment);
+    order.setAddress(address);
+
+    List<OrderItem> orderItems = new ArrayList<>();
+    for (long id = 1; id <= 2; id++) {
+      OrderItem orderItem = new OrderItem();
+      orderItem.setOrderItemId(id);
+      orderItem.setProduct(product(id));
+      orderItem.setOrder(order);
+      orderItem.setQuantity(2);
+      orderItem.setDiscount(10.0);
+      orderItem.setOrderedProductPrice(900.0);
+      orderItems.add(orderItem);
+    }
+
+    // As in OrderServiceImpl.placeOrder: items are saved separately and appended to the DTO.
+    OrderDTO legacy = modelMapper.map(order, OrderDTO.class);
+    orderItems.forEach(
+        item -> legacy.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
+    legacy.setAddressId(address.getAddressId());
+
+    OrderDTO generated = orderMapper.toOrderDTO(order);
+    orderItems.forEach(item -> generated.getOrderItems().add(orderMapper.toOrderItemDTO(item)));
+
+    assertSameJson(legacy, generated);
+
+    order.setOrderItems(orderItems);
+    assertSameJson(modelMapper.map(order, OrderDTO.class), orderMapper.toOrderDTO(order));
+  }
+
+  @Test
+  void address() throws Exception {
+    Address address = sampleAddress();
+    assertSameJson(
+        modelMapper.map(address, AddressDTO.class), addressMapper.toAddressDTO(address));
+
+    AddressDTO addressDTO = addressMapper.toAddressDTO(address);
+    addressDTO.setAddressId(null);
+    assertSameJson(modelMapper.map(addressDTO, Address.class), addressMapper.toAddress(addressDTO));
+  }
+
+  @Test
+  void category() throws Exception {
+    Category category = new Category();
+    category.setCategoryId(3L);
+    category.setCategoryName("Electronics");
+    assertSameJson(
+        modelMapper.map(category, CategoryDTO.class), categoryMapper.toCategoryDTO(category));
+
+    CategoryDTO categoryDTO = new CategoryDTO(null, "Home Appliances");
+    assertSameJson(
+        modelMapper.map(categoryDTO, Category.class), categoryMapper.toCategory(categoryDTO));
+  }
+
+  private void assertSameJson(Object expected, Object actual) throws Exception {
+    assertThat(objectMapper.writeValueAsString(actual))
+        .isEqualTo(objectMapper.writeValueAsString(expected));
+  }
+
+  private static Product product(Long id) {
+    Product product = new Product();
+    product.setProductId(id);
+    product.setProductName("Product " + id);
+    product.setDescription("Description of product " + id);
+    product.setImage("product-" + id + ".png");
+    product.setQuantity(100);
+    product.setPrice(1000);
+    product.setDiscount(10);
+    product.setSpecialPrice(900);
+    return product;
+  }
+
+  private static Address sampleAddress() {
+    Address address = new Address("Sunrise Towers", "Pune", "India", "411001", "MH", "MG Road");
+    address.setAddressId(4L);
+    return address;
+  }
+}
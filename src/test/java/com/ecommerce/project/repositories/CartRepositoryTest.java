@@ -0,0 +1,124 @@
+package com.ecommerce.project.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Set-based repricing of a product held in 50k carts, each of which also holds a second product
+ * whose line must not move the total.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+class CartRepositoryTest {
+  private static final int CARTS = 50_000;
+  private static final int CARTS_WITHOUT_PRODUCT = 100;
+  private static final double OLD_PRICE = 900;
+  private static final double OTHER_PRICE = 100;
+
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private CartRepository cartRepository;
+  @Autowired private CartItemRepository cartItemRepository;
+  @Autowired private DataSource dataSource;
+
+  private JdbcTemplate jdbcTemplate;
+  private Statistics statistics;
+  private Long productId;
+
+  @BeforeEach
+  void seed() {
+    Category category = new Category();
+    category.setCategoryName("Electronics");
+    entityManager.persist(category);
+    productId = entityManager.persist(product(category, "Phone", OLD_PRICE)).getProductId();
+    Long otherId = entityManager.persist(product(category, "Case", OTHER_PRICE)).getProductId();
+    entityManager.flush();
+    entityManager.clear();
+
+    // Plain JDBC batches; persisting 100k entities would dominate the run.
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    List<Object[]> carts = new ArrayList<>();
+    List<Object[]> items = new ArrayList<>();
+    long itemId = 1;
+    for (long cartId = 1; cartId <= CARTS + CARTS_WITHOUT_PRODUCT; cartId++) {
+      boolean holdsProduct = cartId <= CARTS;
+      int quantity = quantity(cartId);
+      double total = OTHER_PRICE + (holdsProduct ? OLD_PRICE * quantity : 0);
+      carts.add(new Object[] {cartId, total});
+      items.add(new Object[] {itemId++, cartId, otherId, 1, OTHER_PRICE});
+      if (holdsProduct) items.add(new Object[] {itemId++, cartId, productId, quantity, OLD_PRICE});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO carts (cart_id, total_price) VALUES (?, ?)", carts);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO cart_items (cart_item_id, cart_id, product_id, quantity, product_price, discount)"
+            + " VALUES (?, ?, ?, ?, ?, 10)",
+        items);
+
+    statistics =
+        entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+            .getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void repricingRunsTwoStatementsForAllCarts() {
+    double newPrice = 850;
+
+    int carts = cartRepository.repriceCartTotalsByProductId(productId, newPrice);
+    int lines = cartItemRepository.updateProductPriceByProductId(productId, newPrice);
+
+    assertThat(carts).isEqualTo(CARTS);
+    assertThat(lines).isEqualTo(CARTS);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+
+    for (long cartId : List.of(1L, 2L, 3L, (long) CARTS, CARTS + 1L))
+      assertThat(cartRepository.findById(cartId).orElseThrow().getTotalPrice())
+          .isEqualTo(OTHER_PRICE + (cartId <= CARTS ? newPrice * quantity(cartId) : 0));
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items WHERE product_id = ? AND product_price <> ?",
+                Long.class,
+                productId,
+                newPrice))
+        .isZero();
+  }
+
+  @Test
+  void repricingToTheSamePriceTouchesNothing() {
+    assertThat(cartRepository.repriceCartTotalsByProductId(productId, OLD_PRICE)).isZero();
+    assertThat(cartItemRepository.updateProductPriceByProductId(productId, OLD_PRICE)).isZero();
+  }
+
+  private static int quantity(long cartId) {
+    return (int) (cartId % 3) + 1;
+  }
+
+  private static Product product(Category category, String name, double specialPrice) {
+    Product product = new Product();
+    product.setProductName(name);
+    product.setDescription("Description of " + name);
+    product.setImage("default.png");
+    product.setQuantity(100);
+    product.setPrice(specialPrice);
+    product.setDiscount(0);
+    product.setSpecialPrice(specialPrice);
+    product.setCategory(category);
+    return product;
+  }
+}
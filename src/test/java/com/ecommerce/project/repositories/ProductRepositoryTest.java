@@ -0,0 +1,165 @@
+package com.ecommerce.project.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CatalogVersion;
+import com.ecommerce.project.payload.ProductDTO;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Query counts and allocations of a product listing page, seeded so that every product sits in
+ * every cart.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+class ProductRepositoryTest {
+  private static final int PRODUCTS = 40;
+  private static final int CARTS = 50;
+  private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("productId"));
+
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private ProductRepository productRepository;
+
+  private Statistics statistics;
+  private Long categoryId;
+
+  @BeforeEach
+  void seed() {
+    Category category = new Category();
+    category.setCategoryName("Electronics");
+    entityManager.persist(category);
+    categoryId = category.getCategoryId();
+
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < PRODUCTS; i++) {
+      Product product = new Product();
+      product.setProductName("Product " + i);
+      product.setDescription("Description of product " + i);
+      product.setImage("default.png");
+      product.setQuantity(100);
+      product.setPrice(1000 + i);
+      product.setDiscount(10);
+      product.setSpecialPrice(900 + i);
+      product.setCategory(category);
+      products.add(entityManager.persist(product));
+    }
+
+    for (int i = 0; i < CARTS; i++) {
+      User user = entityManager.persist(new User("user" + i, "user" + i + "@example.com", "secret"));
+      Cart cart = new Cart();
+      cart.setUser(user);
+      cart.setTotalPrice(0.0);
+      entityManager.persist(cart);
+      for (Product product : products) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(1);
+        cartItem.setDiscount(product.getDiscount());
+        cartItem.setProductPrice(product.getSpecialPrice());
+        entityManager.persist(cartItem);
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics =
+        entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+            .getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void projectionPageRunsOnlyThePageAndCountQueries() {
+    Page<ProductDTO> page = productRepository.findProductDTOs(null, "Electronics", PAGE);
+
+    assertThat(page.getContent()).hasSize(20);
+    assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void categoryPageIsOrderedByPrice() {
+    Page<ProductDTO> page =
+        productRepository.findProductDTOsByCategoryIdOrderByPriceAsc(
+            categoryId, PageRequest.of(0, 20));
+
+    assertThat(page.getContent()).extracting(ProductDTO::getPrice).isSorted();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void catalogVersionIsOneQueryAndMovesWithAnUpdate() {
+    CatalogVersion before = productRepository.findCatalogVersion("Electronics");
+
+    assertThat(before.count()).isEqualTo(PRODUCTS);
+    assertThat(before.updatedAt()).isNotNull();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+
+    Product product = productRepository.findAll(PAGE).getContent().get(0);
+    product.setQuantity(product.getQuantity() - 1);
+    entityManager.flush();
+
+    CatalogVersion after = productRepository.findCatalogVersionByCategoryId(categoryId);
+    assertThat(after.count()).isEqualTo(PRODUCTS);
+    assertThat(after.eTag()).isNotEqualTo(before.eTag());
+  }
+
+  @Test
+  void entityPageNoLongerLoadsCartLines() {
+    Page<Product> page = productRepository.findAll(PAGE);
+
+    assertThat(page.getContent()).hasSize(20);
+    assertThat(statistics.getEntityStatistics(CartItem.class.getName()).getLoadCount()).isZero();
+    assertThat(statistics.getCollectionLoadCount()).isZero();
+  }
+
+  @Test
+  void projectionAllocatesLessThanEntityHydration() {
+    long entityBytes = allocatedBytes(() -> productRepository.findAll(PAGE));
+    long projectionBytes =
+        allocatedBytes(() -> productRepository.findProductDTOs(null, null, PAGE));
+
+    assertThat(projectionBytes).isLessThan(entityBytes);
+  }
+
+  // Bytes allocated by this thread for one call, after a few warm-up calls.
+  private long allocatedBytes(Supplier<?> query) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (int i = 0; i < 5; i++) {
+      query.get();
+      entityManager.clear();
+    }
+    long before = threads.getCurrentThreadAllocatedBytes();
+    query.get();
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+    entityManager.clear();
+    return allocated;
+  }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.project.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class CachedBodyHttpServletRequestTest {
+  @Test
+  void readListenerIsGivenTheWholeBody() throws Exception {
+    byte[] body = "{\"username\":\"user1\"}".getBytes(StandardCharsets.UTF_8);
+    ServletInputStream inputStream =
+        new CachedBodyHttpServletRequest(new MockHttpServletRequest(), body).getInputStream();
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+    List<String> events = new ArrayList<>();
+
+    inputStream.setReadListener(
+        new ReadListener() {
+          @Override
+          public void onDataAvailable() throws IOException {
+            events.add("data");
+            byte[] buffer = new byte[4];
+            while (inputStream.isReady() && !inputStream.isFinished()) {
+              int length = inputStream.read(buffer);
+              read.write(buffer, 0, length);
+            }
+          }
+
+          @Override
+          public void onAllDataRead() {
+            events.add("done");
+          }
+
+          @Override
+          public void onError(Throwable throwable) {
+            events.add("error");
+          }
+        });
+
+    assertThat(events).containsExactly("data", "done");
+    assertThat(read.toByteArray()).isEqualTo(body);
+  }
+}
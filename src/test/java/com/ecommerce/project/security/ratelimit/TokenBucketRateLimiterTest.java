@@ -0,0 +1,53 @@
+package com.ecommerce.project.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+  private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+  @Test
+  void burstIsLimitedAndRefillsOverThePeriod() {
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 3000, 100, clock::get);
+
+    for (int i = 0; i < 3; i++) assertThat(acquire(limiter, "ip:1")).isZero();
+    assertThat(acquire(limiter, "ip:1")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    assertThat(acquire(limiter, "ip:2")).isZero();
+
+    advanceMillis(1000);
+    assertThat(acquire(limiter, "ip:1")).isZero();
+    assertThat(acquire(limiter, "ip:1")).isPositive();
+  }
+
+  @Test
+  void newKeysBeyondTheLimitDoNotGrowTheMap() {
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 3000, 100, clock::get);
+
+    for (int i = 0; i < 10_000; i++) acquire(limiter, "ip:" + i);
+    limiter.evictIdle();
+
+    assertThat(limiter.size()).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  void bucketsLeftAloneForAPeriodExpire() {
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 3000, 100, clock::get);
+    acquire(limiter, "ip:1");
+
+    advanceMillis(3000);
+    limiter.evictIdle();
+
+    assertThat(limiter.size()).isZero();
+  }
+
+  private long acquire(TokenBucketRateLimiter limiter, String key) {
+    return limiter.tryAcquire(key, clock.get());
+  }
+
+  private void advanceMillis(long millis) {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+}
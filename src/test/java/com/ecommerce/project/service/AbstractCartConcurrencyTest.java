@@ -0,0 +1,139 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.util.AuthUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Many threads edit the same cart at once through the cart store under test, outside any test
+ * transaction as in production. With lost updates the line quantities fall behind the edits that
+ * succeeded and the total drifts from the lines.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class AbstractCartConcurrencyTest {
+  private static final int THREADS = 32;
+  private static final int EDITS_PER_THREAD = 25;
+  private static final int PRODUCTS = 4;
+  private static final String EMAIL = "user1@example.com";
+
+  @Autowired private CartStore cartStore;
+  @Autowired private CartService cartService;
+  @Autowired private CartRepository cartRepository;
+  @Autowired private ProductRepository productRepository;
+  @Autowired private CategoryRepository categoryRepository;
+  @Autowired private UserRepository userRepository;
+
+  @MockitoBean private AuthUtil authUtil;
+
+  @Test
+  void concurrentEditsOfOneCartLoseNothing() throws Exception {
+    List<Product> products = seedCart();
+    when(authUtil.loggedInEmail()).thenReturn(EMAIL);
+
+    AtomicIntegerArray applied = new AtomicIntegerArray(PRODUCTS);
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < EDITS_PER_THREAD; i++) {
+                  int index = (thread + i) % PRODUCTS;
+                  try {
+                    cartService.updateProductQuantityInCart(
+                        products.get(index).getProductId(), 1);
+                    applied.incrementAndGet(index);
+                  } catch (OptimisticLockingFailureException exhausted) {
+                    // Gave up after the last attempt; the cart must not show it.
+                  }
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) future.get();
+    executor.shutdown();
+    cartStore.flushAll();
+
+    Cart cart = cartRepository.findCartByEmail(EMAIL);
+    double linesTotal = 0;
+    int editsApplied = 0;
+    for (CartItem cartItem : cart.getCartItems()) {
+      int index =
+          products.stream()
+              .map(Product::getProductId)
+              .toList()
+              .indexOf(cartItem.getProduct().getProductId());
+      assertThat(cartItem.getQuantity()).isEqualTo(1 + applied.get(index));
+      linesTotal += cartItem.getProductPrice() * cartItem.getQuantity();
+      editsApplied += applied.get(index);
+    }
+    assertThat(cart.getTotalPrice()).isCloseTo(linesTotal, within(1e-6));
+    assertThat(editsApplied)
+        .isGreaterThanOrEqualTo(minimumEditsApplied(THREADS * EDITS_PER_THREAD));
+  }
+
+  /** How many of the edits must get through; the rest may run out of retries. */
+  protected abstract int minimumEditsApplied(int edits);
+
+  private List<Product> seedCart() {
+    Category category = new Category();
+    category.setCategoryName("Electronics");
+    categoryRepository.save(category);
+
+    Cart cart = new Cart();
+    cart.setUser(userRepository.save(new User("user1", EMAIL, "secret")));
+    cart.setTotalPrice(0.0);
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < PRODUCTS; i++) {
+      Product product = new Product();
+      product.setProductName("Item " + i);
+      product.setDescription("Description of item " + i);
+      product.setImage("default.png");
+      product.setQuantity(1_000_000);
+      product.setPrice(10 + i);
+      product.setDiscount(0);
+      product.setSpecialPrice(10 + i);
+      product.setCategory(category);
+      products.add(productRepository.save(product));
+
+      CartItem cartItem = new CartItem();
+      cartItem.setCart(cart);
+      cartItem.setProduct(product);
+      cartItem.setQuantity(1);
+      cartItem.setDiscount(0.0);
+      cartItem.setProductPrice(product.getSpecialPrice());
+      cart.getCartItems().add(cartItem);
+      cart.setTotalPrice(cart.getTotalPrice() + product.getSpecialPrice());
+    }
+    cartRepository.save(cart);
+    return products;
+  }
+}
@@ -0,0 +1,266 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CartBatchResponse;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperation;
+import com.ecommerce.project.payload.CartOperationError;
+import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.KeysetPage;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Statement counts of cart reads and writes. The set-based product removal must also leave carts
+ * exactly as removing the product cart by cart did: two identical groups of carts are seeded, one
+ * per product, and each group goes through one path.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@Import({CartServiceImpl.class, JpaCartStore.class, CartMapperImpl.class, ProductMapperImpl.class})
+class CartServiceImplTest {
+  private static final int CARTS = 40;
+  private static final int LINES = 50;
+  private static final String EMAIL = "user1@example.com";
+
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private CartRepository cartRepository;
+  @Autowired private CartService cartService;
+
+  @MockitoBean private AuthUtil authUtil;
+
+  private Category category;
+  private Product other;
+
+  @BeforeEach
+  void seed() {
+    category = new Category();
+    category.setCategoryName("Electronics");
+    entityManager.persist(category);
+    other = entityManager.persist(product("Case", 49.99));
+  }
+
+  @Test
+  void cartWithFiftyLinesRendersInOneStatement() {
+    Long cartId = seedUserCart();
+    Statistics statistics = clearedStatistics();
+
+    CartDTO cartDTO = cartService.getCart(EMAIL, cartId);
+
+    assertThat(cartDTO.getProducts()).hasSize(LINES);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void addingToALargeCartDoesNotReloadItsLines() {
+    seedUserCart();
+    Product product = entityManager.persist(product("Charger", 19.99));
+    entityManager.flush();
+    entityManager.clear();
+    when(authUtil.loggedInEmail()).thenReturn(EMAIL);
+    Statistics statistics = clearedStatistics();
+
+    CartDTO cartDTO = cartService.addProductToCart(product.getProductId(), 1);
+    entityManager.flush();
+
+    assertThat(cartDTO.getProducts()).hasSize(LINES + 1);
+    // The cart with its lines, the product, the new line and the new total.
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+  }
+
+  @Test
+  void batchAppliesValidOperationsInOnePassAndReportsTheRest() {
+    seedUserCart();
+    List<CartItem> lines = cartRepository.findCartByEmail(EMAIL).getCartItems();
+    Product first = lines.get(0).getProduct();
+    Product second = lines.get(1).getProduct();
+    Product charger = entityManager.persist(product("Charger", 19.99));
+    entityManager.flush();
+    entityManager.clear();
+    when(authUtil.loggedInEmail()).thenReturn(EMAIL);
+    Statistics statistics = clearedStatistics();
+
+    CartBatchResponse response =
+        cartService.applyCartOperations(
+            List.of(
+                new CartOperation(CartOperation.Type.ADD, charger.getProductId(), 2),
+                new CartOperation(CartOperation.Type.UPDATE, first.getProductId(), 1),
+                new CartOperation(CartOperation.Type.REMOVE, second.getProductId(), null),
+                new CartOperation(CartOperation.Type.ADD, first.getProductId(), 1),
+                new CartOperation(CartOperation.Type.UPDATE, Long.MAX_VALUE, 1)));
+    entityManager.flush();
+
+    assertThat(response.getApplied()).isEqualTo(3);
+    assertThat(response.getErrors())
+        .extracting(CartOperationError::getIndex)
+        .containsExactly(3, 4);
+    assertThat(response.getCart().getProducts()).hasSize(LINES);
+    double total = 0;
+    for (int i = 0; i < LINES; i++) total += 10 + i;
+    total += 19.99 * 2 + first.getSpecialPrice() - second.getSpecialPrice();
+    assertThat(response.getCart().getTotalPrice()).isCloseTo(total, within(1e-9));
+    // The cart with its lines, the products, then one write per changed row.
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+  }
+
+  @Test
+  void cartPagesFollowTheCursorWithTwoStatementsEach() {
+    Product product = entityManager.persist(product("Phone", 333.33));
+    List<Long> cartIds = seedCarts(product);
+    entityManager.flush();
+    entityManager.clear();
+
+    List<Long> listed = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      Statistics statistics = clearedStatistics();
+      KeysetPage<CartDTO> page = cartService.getCarts(cursor, 15);
+      assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+      page.content().forEach(cartDTO -> listed.add(cartDTO.getCartId()));
+      assertThat(page.content())
+          .allSatisfy(cartDTO -> assertThat(cartDTO.getProducts()).hasSize(2));
+      cursor = page.nextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertThat(pages).isEqualTo(3);
+    assertThat(listed).isEqualTo(cartIds);
+  }
+
+  @Test
+  void setBasedRemovalMatchesPerCartRemoval() {
+    Product perCart = entityManager.persist(product("Phone", 333.33));
+    Product setBased = entityManager.persist(product("Tablet", 333.33));
+    List<Long> perCartIds = seedCarts(perCart);
+    List<Long> setBasedIds = seedCarts(setBased);
+    entityManager.flush();
+    entityManager.clear();
+
+    perCartIds.forEach(cartId -> cartService.deleteProductFromCart(cartId, perCart.getProductId()));
+    entityManager.flush();
+    entityManager.clear();
+
+    Statistics statistics = clearedStatistics();
+    cartService.deleteProductFromCarts(setBased.getProductId());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+    for (int i = 0; i < CARTS; i++) {
+      Cart expected = cartRepository.findById(perCartIds.get(i)).orElseThrow();
+      Cart actual = cartRepository.findById(setBasedIds.get(i)).orElseThrow();
+      assertThat(actual.getTotalPrice()).isCloseTo(expected.getTotalPrice(), within(1e-9));
+      assertThat(actual.getCartItems())
+          .extracting(cartItem -> cartItem.getProduct().getProductId())
+          .containsExactly(other.getProductId());
+    }
+  }
+
+  @Test
+  void negativeTotalRejectsTheWholeRemoval() {
+    Product product = entityManager.persist(product("Phone", 100));
+    List<Long> cartIds = seedCarts(product);
+    Cart broken = cartRepository.findById(cartIds.get(CARTS - 1)).orElseThrow();
+    broken.setTotalPrice(1.0);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThatThrownBy(() -> cartService.deleteProductFromCarts(product.getProductId()))
+        .isInstanceOf(APIException.class)
+        .hasMessage("Total price cannot be negative.");
+
+    entityManager.clear();
+    assertThat(cartRepository.findById(cartIds.get(0)).orElseThrow().getCartItems()).hasSize(2);
+    assertThat(cartRepository.findById(broken.getCartId()).orElseThrow().getTotalPrice())
+        .isEqualTo(1.0);
+  }
+
+  private Long seedUserCart() {
+    User user = entityManager.persist(new User("user1", EMAIL, "secret"));
+    Cart cart = new Cart();
+    cart.setUser(user);
+    cart.setTotalPrice(0.0);
+    entityManager.persist(cart);
+    for (int i = 0; i < LINES; i++) {
+      Product product = entityManager.persist(product("Item " + i, 10 + i));
+      entityManager.persist(cartItem(cart, product, 1, 0));
+      cart.setTotalPrice(cart.getTotalPrice() + product.getSpecialPrice());
+    }
+    entityManager.flush();
+    entityManager.clear();
+    return cart.getCartId();
+  }
+
+  private Statistics clearedStatistics() {
+    Statistics statistics =
+        entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+            .getStatistics();
+    statistics.clear();
+    return statistics;
+  }
+
+  // Varied quantities and discounts, each cart also holding a line that must survive.
+  private List<Long> seedCarts(Product product) {
+    List<Long> cartIds = new ArrayList<>();
+    for (int i = 0; i < CARTS; i++) {
+      int quantity = i % 3 + 1;
+      double discount = (i % 4) * 7.5;
+      double price = product.getSpecialPrice();
+      Cart cart = new Cart();
+      cart.setTotalPrice(
+          (price - price * discount / 100) * quantity + other.getSpecialPrice() * (i % 2 + 1));
+      entityManager.persist(cart);
+      entityManager.persist(cartItem(cart, product, quantity, discount));
+      entityManager.persist(cartItem(cart, other, i % 2 + 1, 0));
+      cartIds.add(cart.getCartId());
+    }
+    return cartIds;
+  }
+
+  private static CartItem cartItem(Cart cart, Product product, int quantity, double discount) {
+    CartItem cartItem = new CartItem();
+    cartItem.setCart(cart);
+    cartItem.setProduct(product);
+    cartItem.setQuantity(quantity);
+    cartItem.setDiscount(discount);
+    cartItem.setProductPrice(product.getSpecialPrice());
+    return cartItem;
+  }
+
+  private Product product(String name, double specialPrice) {
+    Product product = new Product();
+    product.setProductName(name);
+    product.setDescription("Description of " + name);
+    product.setImage("default.png");
+    product.setQuantity(100);
+    product.setPrice(specialPrice);
+    product.setDiscount(0);
+    product.setSpecialPrice(specialPrice);
+    product.setCategory(category);
+    return product;
+  }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/** Each edit is its own optimistic transaction, retried on a version conflict. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.app.cartStore.maxAttempts=50"
+    })
+@Import({CartServiceImpl.class, JpaCartStore.class, CartMapperImpl.class, ProductMapperImpl.class})
+class JpaCartStoreConcurrencyTest extends AbstractCartConcurrencyTest {
+  @Override
+  protected int minimumEditsApplied(int edits) {
+    return 1;
+  }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+
+/** Exact export output, including values that need CSV quoting and JSON escaping. */
+@DataJpaTest(
+    properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ProductExportServiceImpl.class, ProductExportServiceImplTest.Infrastructure.class})
+class ProductExportServiceImplTest {
+  @TestConfiguration
+  static class Infrastructure {
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper();
+    }
+  }
+
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private ProductExportService productExportService;
+
+  private Category category;
+  private Product plain;
+  private Product awkward;
+
+  @BeforeEach
+  void seed() {
+    category = new Category();
+    category.setCategoryName("Home, Garden");
+    entityManager.persist(category);
+    plain = entityManager.persist(product("Desk lamp", "Brass desk lamp", "lamp.png"));
+    awkward = entityManager.persist(product("The \"Big\" lamp", "Tall,\nbright", null));
+    entityManager.flush();
+  }
+
+  @Test
+  void csvQuotesOnlyTheFieldsThatNeedIt() throws Exception {
+    String expected =
+        String.join(
+            "\n",
+            "productId,productName,description,image,quantity,price,discount,specialPrice,"
+                + "categoryId,categoryName",
+            plain.getProductId()
+                + ",Desk lamp,Brass desk lamp,lamp.png,3,20.0,10.0,18.0,"
+                + category.getCategoryId()
+                + ",\"Home, Garden\"",
+            awkward.getProductId()
+                + ",\"The \"\"Big\"\" lamp\",\"Tall,\nbright\",,3,20.0,10.0,18.0,"
+                + category.getCategoryId()
+                + ",\"Home, Garden\"",
+            "");
+
+    assertThat(export("text/csv")).isEqualTo(expected.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void ndjsonWritesOneObjectPerLine() throws Exception {
+    String expected =
+        String.join(
+            "\n",
+            List.of(
+                "{\"productId\":"
+                    + plain.getProductId()
+                    + ",\"productName\":\"Desk lamp\",\"description\":\"Brass desk lamp\","
+                    + "\"image\":\"lamp.png\",\"quantity\":3,\"price\":20.0,\"discount\":10.0,"
+                    + "\"specialPrice\":18.0,\"categoryId\":"
+                    + category.getCategoryId()
+                    + ",\"categoryName\":\"Home, Garden\"}",
+                "{\"productId\":"
+                    + awkward.getProductId()
+                    + ",\"productName\":\"The \\\"Big\\\" lamp\","
+                    + "\"description\":\"Tall,\\nbright\","
+                    + "\"image\":null,\"quantity\":3,\"price\":20.0,\"discount\":10.0,"
+                    + "\"specialPrice\":18.0,\"categoryId\":"
+                    + category.getCategoryId()
+                    + ",\"categoryName\":\"Home, Garden\"}",
+                ""));
+
+    assertThat(export("application/x-ndjson"))
+        .isEqualTo(expected.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private byte[] export(String contentType) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    productExportService.exportProducts(MediaType.parseMediaType(contentType), out);
+    return out.toByteArray();
+  }
+
+  private Product product(String name, String description, String image) {
+    Product product = new Product();
+    product.setProductName(name);
+    product.setDescription(description);
+    product.setImage(image);
+    product.setQuantity(3);
+    product.setPrice(20);
+    product.setDiscount(10);
+    product.setSpecialPrice(18);
+    product.setCategory(category);
+    return product;
+  }
+}
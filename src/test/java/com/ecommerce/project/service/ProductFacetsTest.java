@@ -0,0 +1,84 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.PriceBucket;
+import com.ecommerce.project.payload.ProductFacetResponse;
+import com.ecommerce.project.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ProductFacetsTest {
+  private ProductSearchIndex productSearchIndex;
+  private ProductFacets productFacets;
+
+  @BeforeEach
+  void setUp() {
+    ProductRepository productRepository = mock(ProductRepository.class);
+    when(productRepository.findSearchDocumentsAfter(anyLong(), any(Pageable.class)))
+        .thenReturn(List.of());
+    productSearchIndex = new ProductSearchIndex();
+    ReflectionTestUtils.setField(productSearchIndex, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productSearchIndex, "rebuildBatchSize", 100);
+    productSearchIndex.rebuild();
+
+    productFacets = new ProductFacets();
+    ReflectionTestUtils.setField(productFacets, "productSearchIndex", productSearchIndex);
+    ReflectionTestUtils.setField(productFacets, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(productFacets, "cacheMaxSize", 100L);
+    productFacets.init();
+  }
+
+  @Test
+  void pricesAreCountedPerBucket() {
+    index(1L, "Desk lamp", 5);
+    index(2L, "Floor lamp", 12);
+    index(3L, "Wall lamp", 19.99);
+    index(4L, "Desk chair", 45);
+
+    ProductFacetResponse response = productFacets.getFacets("lamp", null, 10);
+
+    assertThat(response.getTotalHits()).isEqualTo(3);
+    assertThat(response.getPriceHistogram())
+        .extracting(PriceBucket::getFrom, PriceBucket::getTo, PriceBucket::getCount)
+        .containsExactly(tuple(0.0, 10.0, 1L), tuple(10.0, 20.0, 2L));
+  }
+
+  @Test
+  void bucketSizesThatMakeTooManyBucketsAreRejected() {
+    for (long id = 1; id <= 1001; id++) index(id, "Lamp " + id, id);
+
+    assertThat(productFacets.getFacets(null, null, 2).getPriceHistogram()).hasSize(501);
+    assertThatThrownBy(() -> productFacets.getFacets(null, null, 1))
+        .isInstanceOf(APIException.class)
+        .hasMessageContaining("more than 1000 price buckets");
+    assertThatThrownBy(() -> productFacets.getFacets(null, null, 0))
+        .isInstanceOf(APIException.class);
+  }
+
+  private void index(Long productId, String name, double specialPrice) {
+    Category category = new Category();
+    category.setCategoryId(1L);
+    category.setCategoryName("Home");
+    Product product = new Product();
+    product.setProductId(productId);
+    product.setProductName(name);
+    product.setDescription("Description of " + name);
+    product.setSpecialPrice(specialPrice);
+    product.setCategory(category);
+    productSearchIndex.index(product);
+  }
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductImportError;
+import com.ecommerce.project.payload.ProductImportResponse;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ProductImportServiceImplTest {
+  private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+  private static final String HEADER = "productName,description,price,quantity\n";
+
+  private ProductRepository productRepository;
+  private ProductImportServiceImpl productImportService;
+  private final List<List<String>> savedChunks = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    Category category = new Category();
+    category.setCategoryId(1L);
+    category.setCategoryName("Electronics");
+    CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+
+    productRepository = mock(ProductRepository.class);
+    when(productRepository.findProductNamesIn(anyLong(), anyCollection())).thenReturn(Set.of());
+    when(productRepository.saveAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Product> products = invocation.getArgument(0);
+              savedChunks.add(products.stream().map(Product::getProductName).toList());
+              return products;
+            });
+
+    productImportService = new ProductImportServiceImpl();
+    ReflectionTestUtils.setField(productImportService, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productImportService, "categoryRepository", categoryRepository);
+    ReflectionTestUtils.setField(productImportService, "productMapper", new ProductMapperImpl());
+    ReflectionTestUtils.setField(
+        productImportService, "productSearchIndex", mock(ProductSearchIndex.class));
+    ReflectionTestUtils.setField(
+        productImportService, "productPageCache", mock(ProductPageCache.class));
+    ReflectionTestUtils.setField(productImportService, "objectMapper", new ObjectMapper());
+    ReflectionTestUtils.setField(
+        productImportService,
+        "validator",
+        Validation.buildDefaultValidatorFactory().getValidator());
+    ReflectionTestUtils.setField(
+        productImportService, "transactionManager", mock(PlatformTransactionManager.class));
+    ReflectionTestUtils.setField(productImportService, "entityManager", mock(EntityManager.class));
+    ReflectionTestUtils.setField(productImportService, "chunkSize", 2);
+    productImportService.init();
+  }
+
+  @Test
+  void csvFieldsHandleQuotesCommasAndEscapes() {
+    assertThat(ProductImportServiceImpl.parseCsvLine("a,\"b, c\",\"say \"\"hi\"\"\",,"))
+        .containsExactly("a", "b, c", "say \"hi\"", "", "");
+    assertThat(ProductImportServiceImpl.parseCsvLine("\"two\nlines\",x"))
+        .containsExactly("two\nlines", "x");
+    assertThat(ProductImportServiceImpl.parseCsvLine("")).containsExactly("");
+    assertThatThrownBy(() -> ProductImportServiceImpl.parseCsvLine("a,\"open"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void quotedLineBreaksStayInTheirRow() throws Exception {
+    ProductImportResponse response =
+        importCsv(
+            HEADER
+                + "\"Desk lamp\",\"Brass, with a\nsecond line\",20,3\n"
+                + "Floor lamp,Tall and bright,30,1\n");
+
+    assertThat(response.getImported()).isEqualTo(2);
+    assertThat(response.getErrors()).isEmpty();
+    assertThat(savedChunks).containsExactly(List.of("Desk lamp", "Floor lamp"));
+  }
+
+  @Test
+  void badRowsAreReportedByLineAndTheRestImported() throws Exception {
+    ProductImportResponse response =
+        importCsv(
+            HEADER
+                + "Desk lamp,Brass desk lamp,20,3\n"
+                + "Floor lamp,Tall floor lamp,cheap,1\n"
+                + "\n"
+                + "\"Wall lamp\",\"Quoted,\nover two lines\",abc,1\n"
+                + "Ok,Name too short,5,1\n"
+                + "Desk lamp,Same name again,25,1\n"
+                + "Table lamp,Small table lamp,15,2\n");
+
+    assertThat(response.getTotalRows()).isEqualTo(6);
+    assertThat(response.getImported()).isEqualTo(2);
+    assertThat(response.getFailed()).isEqualTo(3);
+    assertThat(response.getSkipped()).isEqualTo(1);
+    assertThat(response.getErrors())
+        .extracting(ProductImportError::getLineNumber)
+        .containsExactly(3L, 5L, 7L, 8L);
+    assertThat(response.getErrors().get(0).getMessage()).startsWith("Malformed row");
+  }
+
+  @Test
+  void rowsAreWrittenInChunks() throws Exception {
+    when(productRepository.findProductNamesIn(anyLong(), anyCollection()))
+        .thenReturn(Set.of("Lamp 3"));
+
+    ProductImportResponse response = importCsv(lamps(5));
+
+    assertThat(savedChunks)
+        .containsExactly(List.of("Lamp 1", "Lamp 2"), List.of("Lamp 4"), List.of("Lamp 5"));
+    assertThat(response.getImported()).isEqualTo(4);
+    assertThat(response.getSkipped()).isEqualTo(1);
+    verify(productRepository, times(3)).flush();
+  }
+
+  @Test
+  void chunkRejectedOnRetryIsReportedAndTheImportGoesOn() throws Exception {
+    doAnswer(
+            invocation -> {
+              List<Product> products = invocation.getArgument(0);
+              if (products.stream().anyMatch(product -> product.getProductName().equals("Lamp 2")))
+                throw new DataIntegrityViolationException("duplicate key");
+              savedChunks.add(products.stream().map(Product::getProductName).toList());
+              return products;
+            })
+        .when(productRepository)
+        .saveAll(anyList());
+
+    ProductImportResponse response = importCsv(lamps(4));
+
+    assertThat(savedChunks).containsExactly(List.of("Lamp 3", "Lamp 4"));
+    assertThat(response.getImported()).isEqualTo(2);
+    assertThat(response.getFailed()).isEqualTo(2);
+    assertThat(response.getErrors())
+        .extracting(ProductImportError::getProductName)
+        .containsExactly("Lamp 1", "Lamp 2");
+    assertThat(response.getErrors().get(0).getMessage()).contains("duplicate key");
+  }
+
+  private static String lamps(int count) {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 1; i <= count; i++) csv.append("Lamp %d,Lamp number %d,10,1\n".formatted(i, i));
+    return csv.toString();
+  }
+
+  private ProductImportResponse importCsv(String csv) throws Exception {
+    return productImportService.importProducts(
+        1L, CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,192 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductSearchDocument;
+import com.ecommerce.project.repositories.ProductRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ProductSearchIndexTest {
+  private static final Map<String, Long> CATEGORY_IDS =
+      Map.of(
+          "Phones", 10L,
+          "Old category", 20L,
+          "Accessories", 30L,
+          "Computers", 40L,
+          "Home", 50L,
+          "Watches", 60L,
+          "Jewellery", 70L,
+          "Misc", 80L);
+
+  private ProductRepository productRepository;
+  private ProductSearchIndex productSearchIndex;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = mock(ProductRepository.class);
+    when(productRepository.findSearchDocumentsAfter(anyLong(), any(Pageable.class)))
+        .thenReturn(List.of());
+    productSearchIndex = new ProductSearchIndex();
+    ReflectionTestUtils.setField(productSearchIndex, "productRepository", productRepository);
+    ReflectionTestUtils.setField(productSearchIndex, "rebuildBatchSize", 2);
+  }
+
+  @Test
+  void tokensAreLowerCasedLettersAndDigits() {
+    assertThat(ProductSearchIndex.tokenize("USB-C  Charger, 65W (Café)"))
+        .containsExactly("usb", "c", "charger", "65w", "café");
+    assertThat(ProductSearchIndex.tokenize("  --  ")).isEmpty();
+    assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+  }
+
+  @Test
+  void everyQueryTokenMustMatch() {
+    index(1L, "Red phone case", "Silicone", "Accessories");
+    index(2L, "Blue phone", "Unlocked smartphone", "Phones");
+
+    assertThat(search("phone red", null)).containsExactly(1L);
+    assertThat(search("phone green", null)).isEmpty();
+    assertThat(search("!!", null)).isEmpty();
+  }
+
+  @Test
+  void nameMatchesOutrankDescriptionMatches() {
+    index(1L, "Charger", "Works with any laptop", "Accessories");
+    index(2L, "Laptop", "Ships with a charger", "Computers");
+
+    assertThat(search("laptop", null)).containsExactly(2L, 1L);
+    assertThat(search("charger", null)).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void exactTermsOutrankPrefixMatches() {
+    index(1L, "Phones bundle", "Two handsets", "Phones");
+    index(2L, "Phone", "One handset", "Phones");
+
+    assertThat(search("phone", null)).containsExactly(2L, 1L);
+    assertThat(search("pho", null)).containsExactlyInAnyOrder(1L, 2L);
+  }
+
+  @Test
+  void rarerTermsWeighMore() {
+    index(1L, "Lamp", "Brass finish", "Home");
+    index(2L, "Brass", "Lamp shade", "Home");
+    index(3L, "Lamp", "Floor", "Home");
+    index(4L, "Lamp", "Desk", "Home");
+    index(5L, "Lamp", "Wall", "Home");
+
+    // Both match both tokens in the name and the description; "brass" is the rarer one.
+    assertThat(search("lamp brass", null)).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void equalScoresAreOrderedByIdAndFilteredByCategory() {
+    index(3L, "Watch", "Steel", "Watches");
+    index(1L, "Watch", "Steel", "Watches");
+    index(2L, "Watch", "Steel", "Jewellery");
+
+    assertThat(search("watch", null)).containsExactly(1L, 2L, 3L);
+    assertThat(search("watch", "Watches")).containsExactly(1L, 3L);
+  }
+
+  @Test
+  void reindexingReplacesTheOldTerms() {
+    index(1L, "Old name", "Description", "Misc");
+    index(1L, "New name", "Description", "Misc");
+
+    assertThat(search("old", null)).isEmpty();
+    assertThat(search("new", null)).containsExactly(1L);
+  }
+
+  @Test
+  void changesMadeDuringARebuildAreNotOverwrittenByItsBatches() {
+    // The second batch is read before the writes below, and would undo them if applied blindly.
+    List<ProductSearchDocument> staleBatch =
+        List.of(
+            new ProductSearchDocument(3L, "Old phone", "Stale", 20L, "Old category", 1),
+            new ProductSearchDocument(4L, "Deleted phone", "Stale", 10L, "Phones", 1));
+    when(productRepository.findSearchDocumentsAfter(eq(0L), any(Pageable.class)))
+        .thenReturn(
+            List.of(
+                new ProductSearchDocument(1L, "Phone", "First", 10L, "Phones", 1),
+                new ProductSearchDocument(2L, "Phone", "Second", 10L, "Phones", 1)));
+    when(productRepository.findSearchDocumentsAfter(eq(2L), any(Pageable.class)))
+        .thenAnswer(
+            invocation -> {
+              index(3L, "New phone", "Current", "Old category");
+              productSearchIndex.remove(4L);
+              productSearchIndex.renameCategory(20L, "New category");
+              return staleBatch;
+            });
+    when(productRepository.findSearchDocumentsAfter(eq(4L), any(Pageable.class)))
+        .thenReturn(List.of(new ProductSearchDocument(5L, "Phone", "Fifth", 20L, "Old", 1)));
+
+    long version = productSearchIndex.getVersion();
+    productSearchIndex.rebuild();
+
+    assertThat(productSearchIndex.isReady()).isTrue();
+    assertThat(productSearchIndex.getVersion()).isGreaterThan(version);
+    assertThat(search("phone", null)).containsExactly(1L, 2L, 3L, 5L);
+    assertThat(search("new", null)).containsExactly(3L);
+    assertThat(productSearchIndex.getDocument(5L).categoryName()).isEqualTo("New category");
+  }
+
+  @Test
+  void aWindowHoldsTheBestHitsAndCountsThemAll() {
+    for (long id = 1; id <= 30; id++)
+      index(id, "Lamp " + id, id % 3 == 0 ? "Lamp with a lamp shade" : "Plain", "Home");
+
+    List<Long> ranking = search("lamp", null);
+    ProductSearchIndex.SearchHits hits = productSearchIndex.search("lamp", null, 7);
+
+    assertThat(hits.totalHits()).isEqualTo(30);
+    assertThat(hits.productIds()).containsExactlyElementsOf(ranking.subList(0, 7));
+    assertThat(ranking.subList(0, 10))
+        .containsExactly(3L, 6L, 9L, 12L, 15L, 18L, 21L, 24L, 27L, 30L);
+    assertThat(productSearchIndex.search("lamp", null, 0).productIds()).isEmpty();
+    assertThat(productSearchIndex.search("lamp", null, 100).productIds()).hasSize(30);
+    assertThat(productSearchIndex.matchingProductIds("lamp")).hasSize(30);
+  }
+
+  @Test
+  void aShortPrefixMatchesEveryExpansion() {
+    for (long id = 1; id <= 300; id++)
+      index(id, "Part %03d".formatted(id), "Spare sku%03d".formatted(id), "Misc");
+
+    ProductSearchIndex.SearchHits hits = productSearchIndex.search("sku", null, 5);
+
+    assertThat(hits.totalHits()).isEqualTo(300);
+    assertThat(hits.productIds()).containsExactly(1L, 2L, 3L, 4L, 5L);
+    // "sku300" sorts after the first 256 expansions of "sku".
+    assertThat(search("part sku", null)).hasSize(300).contains(300L);
+    assertThat(search("sku3", null)).containsExactly(300L);
+  }
+
+  private List<Long> search(String keyword, String categoryName) {
+    return productSearchIndex.search(keyword, categoryName, Integer.MAX_VALUE).productIds();
+  }
+
+  private void index(Long productId, String name, String description, String categoryName) {
+    Category category = new Category();
+    category.setCategoryId(CATEGORY_IDS.get(categoryName));
+    category.setCategoryName(categoryName);
+    Product product = new Product();
+    product.setProductId(productId);
+    product.setProductName(name);
+    product.setDescription(description);
+    product.setCategory(category);
+    productSearchIndex.index(product);
+  }
+}
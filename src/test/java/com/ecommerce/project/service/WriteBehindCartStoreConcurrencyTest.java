@@ -0,0 +1,46 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/** Edits are serialised on the cached cart, so none may be lost or rejected before the flush. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.app.cartStore.writeBehind=true",
+      "spring.app.cartStore.fallbackFile=${java.io.tmpdir}/cart-store-concurrency-test.ndjson"
+    })
+@Import({
+  CartServiceImpl.class,
+  JpaCartStore.class,
+  WriteBehindCartStore.class,
+  WriteBehindCartStoreConcurrencyTest.Infrastructure.class,
+  CartMapperImpl.class,
+  ProductMapperImpl.class
+})
+class WriteBehindCartStoreConcurrencyTest extends AbstractCartConcurrencyTest {
+  @TestConfiguration
+  static class Infrastructure {
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper();
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Override
+  protected int minimumEditsApplied(int edits) {
+    return edits;
+  }
+}
@@ -0,0 +1,193 @@
+package com.ecommerce.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class WriteBehindCartStoreTest {
+  private static final String EMAIL = "user1@example.com";
+
+  @TempDir private Path tempDir;
+
+  private JpaCartStore database;
+  private WriteBehindCartStore cartStore;
+
+  @BeforeEach
+  void setUp() {
+    Cart cart = new Cart();
+    cart.setCartId(1L);
+    cart.setTotalPrice(0.0);
+    database = mock(JpaCartStore.class);
+    when(database.find(EMAIL)).thenReturn(cart);
+
+    cartStore = new WriteBehindCartStore();
+    ReflectionTestUtils.setField(cartStore, "database", database);
+    ReflectionTestUtils.setField(cartStore, "objectMapper", new ObjectMapper());
+    ReflectionTestUtils.setField(cartStore, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(cartStore, "shardCount", 4);
+    ReflectionTestUtils.setField(cartStore, "flushBatchSize", 500);
+    ReflectionTestUtils.setField(
+        cartStore, "fallbackFile", tempDir.resolve("carts.ndjson").toString());
+    cartStore.init();
+  }
+
+  @Test
+  void burstOfUpdatesIsWrittenOnce() {
+    when(database.saveAll(anyCollection())).thenReturn(Map.of(1L, 1L));
+    for (int i = 0; i < 100; i++) cartStore.update(EMAIL, null, this::addOne);
+
+    cartStore.flushAll();
+    cartStore.flushAll();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<CartSnapshot>> written = ArgumentCaptor.forClass(Collection.class);
+    verify(database).saveAll(written.capture());
+    CartSnapshot snapshot = written.getValue().iterator().next();
+    assertThat(snapshot.version()).isZero();
+    assertThat(snapshot.totalPrice()).isEqualTo(100.0);
+    assertThat(snapshot.lines())
+        .singleElement()
+        .extracting(CartSnapshot.Line::quantity)
+        .isEqualTo(100);
+    verify(database, times(1)).find(EMAIL);
+  }
+
+  @Test
+  void cartsThatCannotBeWrittenAtShutdownAreReplayedOnStart() throws Exception {
+    cartStore.update(EMAIL, null, this::addOne);
+    doThrow(new QueryTimeoutException("database down")).when(database).saveAll(anyCollection());
+
+    cartStore.shutdown();
+
+    Path fallback = tempDir.resolve("carts.ndjson");
+    assertThat(Files.readAllLines(fallback)).hasSize(1);
+
+    JpaCartStore restarted = mock(JpaCartStore.class);
+    ReflectionTestUtils.setField(cartStore, "database", restarted);
+    cartStore.replayFallback();
+
+    verify(restarted)
+        .saveAll(
+            List.of(
+                new CartSnapshot(
+                    1L, 0L, EMAIL, 1.0, List.of(new CartSnapshot.Line(10L, 1, 0.0, 1.0)))));
+    assertThat(fallback).doesNotExist();
+  }
+
+  @Test
+  void conflictingFlushRereadsTheCartInsteadOfOverwritingIt() {
+    cartStore.update(EMAIL, null, this::addOne);
+    // Nothing written: the row moved past the cached version.
+    when(database.saveAll(anyCollection())).thenReturn(Map.of());
+    Cart current = new Cart();
+    current.setCartId(1L);
+    current.setVersion(3);
+    current.setTotalPrice(5.0);
+
+    cartStore.flushAll();
+    when(database.find(EMAIL)).thenReturn(current);
+
+    assertThat(cartStore.read(EMAIL, Cart::getTotalPrice)).isEqualTo(5.0);
+    verify(database, times(2)).find(EMAIL);
+  }
+
+  @Test
+  void linesThatCannotBeReplayedAreKept() throws Exception {
+    Path fallback = tempDir.resolve("carts.ndjson");
+    CartSnapshot snapshot = new CartSnapshot(1L, 0L, EMAIL, 0.0, List.of());
+    Files.write(
+        fallback, List.of("{not json", new ObjectMapper().writeValueAsString(snapshot)));
+    when(database.saveAll(List.of(snapshot))).thenReturn(Map.of(1L, 1L));
+
+    cartStore.replayFallback();
+
+    assertThat(Files.readAllLines(fallback)).containsExactly("{not json");
+  }
+
+  @Test
+  void cachedCartsRenderTheCurrentProducts() {
+    cartStore.update(EMAIL, null, this::addOne);
+    when(database.findProducts(List.of(10L)))
+        .thenReturn(Map.of(10L, namedProduct("Phone")), Map.of(10L, namedProduct("Phone v2")));
+
+    Function<Cart, String> productName =
+        cart -> cart.getCartItems().get(0).getProduct().getProductName();
+
+    assertThat(cartStore.read(EMAIL, productName)).isEqualTo("Phone");
+    assertThat(cartStore.read(EMAIL, productName)).isEqualTo("Phone v2");
+  }
+
+  @Test
+  void evictingACartEditedSinceItsFlushIsRefused() {
+    when(database.saveAll(anyCollection())).thenReturn(Map.of(1L, 1L));
+    cartStore.update(EMAIL, null, this::addOne);
+    cartStore.flush(EMAIL);
+    // Lands between the checkout's flush and its evict.
+    cartStore.update(EMAIL, null, this::addOne);
+
+    assertThatThrownBy(() -> cartStore.evict(EMAIL))
+        .isInstanceOf(OptimisticLockingFailureException.class);
+    assertThat(cartStore.read(EMAIL, Cart::getTotalPrice)).isEqualTo(2.0);
+
+    cartStore.flush(EMAIL);
+    cartStore.evict(EMAIL);
+    assertThat(cartStore.size()).isZero();
+  }
+
+  @Test
+  void relativeFallbackFileIsRejected() {
+    ReflectionTestUtils.setField(cartStore, "fallbackFile", "carts.ndjson");
+
+    assertThatThrownBy(cartStore::init).isInstanceOf(IllegalStateException.class);
+  }
+
+  private static Product namedProduct(String name) {
+    Product product = new Product();
+    product.setProductId(10L);
+    product.setProductName(name);
+    return product;
+  }
+
+  // Adds one unit of the same product, priced at 1.
+  private Object addOne(Cart cart) {
+    if (cart.getCartItems().isEmpty()) {
+      Product product = new Product();
+      product.setProductId(10L);
+      CartItem cartItem = new CartItem();
+      cartItem.setCart(cart);
+      cartItem.setProduct(product);
+      cartItem.setQuantity(0);
+      cartItem.setDiscount(0.0);
+      cartItem.setProductPrice(1.0);
+      cart.getCartItems().add(cartItem);
+    }
+    CartItem cartItem = cart.getCartItems().get(0);
+    cartItem.setQuantity(cartItem.getQuantity() + 1);
+    cart.setTotalPrice(cart.getTotalPrice() + 1);
+    return null;
+  }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.project.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ecommerce.project.controller.OrderController;
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.repositories.CartItemRepository;
+import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.ecommerce.project.service.CartServiceImpl;
+import com.ecommerce.project.service.JpaCartStore;
+import com.ecommerce.project.service.OrderService;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class AuthUtilTest {
+  @Mock private UserRepository userRepository;
+  @Mock private CartRepository cartRepository;
+  @Mock private ProductRepository productRepository;
+  @Mock private CartItemRepository cartItemRepository;
+  @Mock private OrderService orderService;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private AuthUtil authUtil;
+
+  @BeforeEach
+  void setUp() {
+    authUtil = new AuthUtil();
+    ReflectionTestUtils.setField(authUtil, "userRepository", userRepository);
+    ReflectionTestUtils.setField(authUtil, "currentUserContext", new CurrentUserContext());
+
+    UserDetailsImpl principal =
+        new UserDetailsImpl(
+            List.of(new SimpleGrantedAuthority("ROLE_USER")),
+            "user1@example.com",
+            1L,
+            null,
+            "user1");
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void cartAddMakesNoUserQueries() {
+    Product product = new Product();
+    product.setProductId(10L);
+    product.setProductName("Laptop");
+    product.setQuantity(5);
+    product.setPrice(100);
+    product.setSpecialPrice(90);
+
+    User userReference = new User();
+    userReference.setUserId(1L);
+
+    when(cartRepository.findCartByEmail("user1@example.com")).thenReturn(null);
+    when(userRepository.getReferenceById(1L)).thenReturn(userReference);
+    when(cartRepository.save(any(Cart.class)))
+        .thenAnswer(
+            invocation -> {
+              Cart cart = invocation.getArgument(0);
+              cart.setCartId(1L);
+              return cart;
+            });
+    when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+
+    CartDTO cartDTO = cartService().addProductToCart(10L, 2);
+
+    assertThat(cartDTO.getTotalPrice()).isEqualTo(180.0);
+    verify(userRepository, never()).findByUserName(anyString());
+    verify(userRepository, never()).findById(any());
+  }
+
+  @Test
+  void orderPlacementMakesNoUserQueries() {
+    OrderController orderController = new OrderController();
+    ReflectionTestUtils.setField(orderController, "orderService", orderService);
+    ReflectionTestUtils.setField(orderController, "authUtil", authUtil);
+
+    OrderRequestDTO orderRequestDTO = new OrderRequestDTO();
+    orderRequestDTO.setAddressId(3L);
+    orderController.orderProducts("card", orderRequestDTO);
+
+    verify(orderService)
+        .placeOrder(eq("user1@example.com"), eq(3L), eq("card"), any(), any(), any(), any());
+    verify(userRepository, never()).findByUserName(anyString());
+    verify(userRepository, never()).findById(any());
+  }
+
+  private CartServiceImpl cartService() {
+    CartServiceImpl cartService = new CartServiceImpl();
+    ReflectionTestUtils.setField(cartService, "authUtil", authUtil);
+    ReflectionTestUtils.setField(cartService, "cartRepository", cartRepository);
+    ReflectionTestUtils.setField(cartService, "productRepository", productRepository);
+    ReflectionTestUtils.setField(cartService, "cartItemRepository", cartItemRepository);
+    CartMapperImpl cartMapper = new CartMapperImpl();
+    ReflectionTestUtils.setField(cartMapper, "productMapper", new ProductMapperImpl());
+    ReflectionTestUtils.setField(cartService, "cartMapper", cartMapper);
+    JpaCartStore cartStore = new JpaCartStore();
+    ReflectionTestUtils.setField(cartStore, "cartRepository", cartRepository);
+    ReflectionTestUtils.setField(cartStore, "productRepository", productRepository);
+    ReflectionTestUtils.setField(cartStore, "transactionManager", transactionManager);
+    cartStore.init();
+    ReflectionTestUtils.setField(cartService, "cartStore", cartStore);
+    return cartService;
+  }
+}
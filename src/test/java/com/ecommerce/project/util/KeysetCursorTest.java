@@ -0,0 +1,211 @@
+package com.ecommerce.project.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+/**
+ * Walks every page of a listing by cursor and checks it against one sorted read: each row must be
+ * served exactly once, in order, across runs of equal and NULL sort keys.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "com.ecommerce.project.util.KeysetCursorTest$RecordingStatementInspector"
+    })
+class KeysetCursorTest {
+  public static class RecordingStatementInspector implements StatementInspector {
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+
+  // Quantities with ties on both sides of a page boundary and NULLs in the middle of the seed.
+  private static final Integer[] QUANTITIES = {5, 5, 5, null, 1, null, 3, 5, null, 1, 3};
+
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private ProductRepository productRepository;
+
+  private final List<Product> products = new ArrayList<>();
+
+  @BeforeEach
+  void seed() {
+    Category category = new Category();
+    category.setCategoryName("Electronics");
+    entityManager.persist(category);
+    for (int i = 0; i < QUANTITIES.length; i++) {
+      Product product = new Product();
+      product.setProductName("Product " + i);
+      product.setDescription("Description of product " + i);
+      product.setQuantity(QUANTITIES[i]);
+      product.setPrice(100);
+      product.setCategory(category);
+      products.add(entityManager.persist(product));
+    }
+    entityManager.flush();
+  }
+
+  @Test
+  void ascendingPagesServeTiesByIdAndNullsLast() {
+    Comparator<Product> order =
+        Comparator.comparing(Product::getQuantity, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Product::getProductId);
+
+    for (int pageSize = 1; pageSize <= 4; pageSize++)
+      assertThat(walk("quantity", "asc", pageSize)).containsExactlyElementsOf(expected(order));
+  }
+
+  @Test
+  void descendingPagesServeNullsFirstAndTiesByIdDescending() {
+    Comparator<Product> order =
+        Comparator.comparing(Product::getQuantity, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Product::getProductId)
+            .reversed();
+
+    for (int pageSize = 1; pageSize <= 4; pageSize++)
+      assertThat(walk("quantity", "desc", pageSize)).containsExactlyElementsOf(expected(order));
+  }
+
+  @Test
+  void allTiedSortKeysFallBackToTheId() {
+    Comparator<Product> order = Comparator.comparing(Product::getProductId);
+
+    assertThat(walk("price", "asc", 3)).containsExactlyElementsOf(expected(order));
+    assertThat(walk("price", "desc", 3)).containsExactlyElementsOf(expected(order.reversed()));
+  }
+
+  @Test
+  void projectedPagesServeTheSameRowsWithoutLoadingEntities() {
+    Comparator<Product> order =
+        Comparator.comparing(Product::getQuantity, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Product::getProductId);
+    entityManager.clear();
+
+    List<Long> served = new ArrayList<>();
+    String cursor = "";
+    do {
+      KeysetPage<ProductDTO> page =
+          KeysetCursor.fetch(
+              entityManager.getEntityManager(),
+              Product.class,
+              ProductDTO.class,
+              ProductRepository.PRODUCT_DTO_FIELDS,
+              Specification.unrestricted(),
+              cursor,
+              "quantity",
+              "productId",
+              "asc",
+              3);
+      page.content().forEach(productDTO -> served.add(productDTO.getProductId()));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+
+    assertThat(served).containsExactlyElementsOf(expected(order));
+    Session session = entityManager.getEntityManager().unwrap(Session.class);
+    assertThat(session.getStatistics().getEntityCount()).isZero();
+  }
+
+  @Test
+  @Sql(
+      statements = "CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, product_id)",
+      config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED))
+  void nonNullSortKeyPageIsReadAlongTheIndexWithoutASort() throws Exception {
+    String cursor = fetch("price", "asc", 3, "").nextCursor();
+    RecordingStatementInspector.STATEMENTS.clear();
+    fetch("price", "asc", 3, cursor);
+
+    assertThat(RecordingStatementInspector.STATEMENTS).hasSize(1);
+    String sql = RecordingStatementInspector.STATEMENTS.get(0);
+    assertThat(sql.toLowerCase()).doesNotContain("case", "is null");
+    // H2 marks an ORDER BY it reads straight off an index as "index sorted".
+    assertThat(explain(sql))
+        .contains("IDX_PRODUCTS_PRICE_ID", "PRICE >= ?")
+        .contains("/* index sorted */");
+  }
+
+  @Test
+  void cursorRoundTripsNullAndSeparatorLikeValues() {
+    for (KeysetCursor cursor :
+        Arrays.asList(
+            new KeysetCursor(null, 7L),
+            new KeysetCursor("", 7L),
+            new KeysetCursor("a\u0000b", 7L))) {
+      assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+    assertThat(KeysetCursor.decode("")).isNull();
+    assertThatThrownBy(() -> KeysetCursor.decode("not a cursor"))
+        .isInstanceOf(APIException.class);
+  }
+
+  private List<Long> walk(String sortBy, String sortOrder, int pageSize) {
+    List<Long> served = new ArrayList<>();
+    String cursor = "";
+    do {
+      KeysetPage<Product> page = fetch(sortBy, sortOrder, pageSize, cursor);
+      assertThat(page.content()).hasSizeLessThanOrEqualTo(pageSize);
+      page.content().forEach(product -> served.add(product.getProductId()));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+    return served;
+  }
+
+  private KeysetPage<Product> fetch(String sortBy, String sortOrder, int pageSize, String cursor) {
+    return KeysetCursor.fetch(
+        productRepository,
+        Specification.unrestricted(),
+        cursor,
+        sortBy,
+        "productId",
+        sortOrder,
+        pageSize);
+  }
+
+  // H2's plan for the statement, with every parameter bound to 1.
+  private String explain(String sql) {
+    return entityManager
+        .getEntityManager()
+        .unwrap(Session.class)
+        .doReturningWork(
+            connection -> {
+              try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++)
+                  statement.setObject(i, 1);
+                try (ResultSet plan = statement.executeQuery()) {
+                  plan.next();
+                  return plan.getString(1);
+                }
+              }
+            });
+  }
+
+  private List<Long> expected(Comparator<Product> order) {
+    return products.stream().sorted(order).map(Product::getProductId).toList();
+  }
+}